@@ -36,6 +36,14 @@ tasks.register<JavaExec>("runFifo") {
   args("fifo")
 }
 
+tasks.register<JavaExec>("runPipeline") {
+  group = "application"
+  description = "Run staged Pipeline (back-pressure + bottleneck) demo"
+  classpath = sourceSets["main"].runtimeClasspath
+  mainClass.set("nebula.app.Demos")
+  args("pipeline")
+}
+
 tasks.register<JavaExec>("runParking") {
   group = "application"
   description = "Run Parking (Semaphore fair) demo"
@@ -76,6 +84,27 @@ tasks.register<JavaExec>("runAll") {
   args("all")
 }
 
+tasks.register<JavaExec>("runBenchPools") {
+  group = "application"
+  description = "Compare ResourcePool throughput (direct / fifo / lockfree / striped)"
+  classpath = sourceSets["main"].runtimeClasspath
+  mainClass.set("nebula.app.BenchResourcePools")
+}
+
+tasks.register<JavaExec>("runBenchQueues") {
+  group = "application"
+  description = "Compare EventQueue throughput (monitor / scc / twolock / spsc / mpmc)"
+  classpath = sourceSets["main"].runtimeClasspath
+  mainClass.set("nebula.app.BenchEventQueues")
+}
+
+tasks.register<JavaExec>("runBenchWait") {
+  group = "application"
+  description = "Compare consumer wake-up latency vs CPU per WaitStrategy"
+  classpath = sourceSets["main"].runtimeClasspath
+  mainClass.set("nebula.app.BenchWaitStrategies")
+}
+
 tasks.named<JavaExec>("run") {
   args("all")
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package nebula.alloc;
+
+import nebula.core.Metrics;
+import nebula.core.Naming;
+import nebula.core.TimingWheel;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Acquisition par bail : {@link #lease} renvoie une poignée avec une durée de
+ * vie (TTL). Si le détenteur meurt entre acquire et release, le bail expire et
+ * ses permis sont rendus au pool sous-jacent (pour {@link ResourcePoolFifo} :
+ * remise directe à la tête de file). Les échéances vivent dans une
+ * {@link TimingWheel} avancée par un unique thread « reaper ».
+ */
+public class LeasedResourcePool implements AutoCloseable {
+
+    /** Bail : rendre via {@link #close()} (try-with-resources) avant l'échéance. */
+    public static final class Lease implements AutoCloseable {
+        private final LeasedResourcePool owner;
+        private final int k;
+        private final AtomicBoolean done = new AtomicBoolean(false); // rendu ou expiré
+        private volatile boolean expired;
+        private TimingWheel.Timeout timeout; // protégé par la roue
+
+        private Lease(LeasedResourcePool owner, int k) {
+            this.owner = owner;
+            this.k = k;
+        }
+
+        public int permits() {
+            return k;
+        }
+
+        /** Vrai si le bail a expiré et que ses permis ont été récupérés. */
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /** Prolonge le bail de ttl à partir de maintenant ; false s'il a déjà expiré. */
+        public boolean renew(long ttl, TimeUnit unit) {
+            Objects.requireNonNull(unit, "unit");
+            synchronized (owner.wheel) {
+                if (done.get() || !owner.wheel.cancel(timeout))
+                    return false;
+                timeout = owner.wheel.schedule(this::expire, ttl, unit);
+                return true;
+            }
+        }
+
+        /** Rend les permis (idempotent). Après expiration : simple comptage du retard. */
+        @Override
+        public void close() {
+            if (done.compareAndSet(false, true)) {
+                synchronized (owner.wheel) {
+                    owner.wheel.cancel(timeout);
+                }
+                owner.pool.release(k);
+            } else if (expired) {
+                owner.lateReleases.mark();
+            }
+        }
+
+        private void expire() {
+            if (done.compareAndSet(false, true)) {
+                expired = true;
+                // compteurs d'abord : visibles dès que le waiter servi se réveille
+                owner.leakedLeases.mark();
+                owner.reclaimedPermits.mark(k);
+                owner.pool.release(k); // retour dans le chemin de hand-off du pool
+            }
+        }
+    }
+
+    private static final long DEFAULT_TICK_MS = 10;
+
+    private final ResourcePool pool;
+    private final TimingWheel wheel;
+    private final ScheduledExecutorService reaper;
+    private final Metrics leakedLeases = new Metrics();
+    private final Metrics reclaimedPermits = new Metrics();
+    private final Metrics lateReleases = new Metrics();
+
+    public LeasedResourcePool(ResourcePool pool) {
+        this(pool, DEFAULT_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** tick = résolution des échéances (et période du reaper). */
+    public LeasedResourcePool(ResourcePool pool, long tick, TimeUnit unit) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.wheel = new TimingWheel(tick, unit);
+        this.reaper = Executors.newSingleThreadScheduledExecutor(Naming.prefixedFactory("lease-reaper", true));
+        long period = wheel.tickNanos();
+        reaper.scheduleAtFixedRate(() -> wheel.advance(System.nanoTime()), period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /** Bloquant : prend k permis pour au plus ttl. */
+    public Lease lease(int k, long ttl, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(unit, "unit");
+        pool.acquire(k);
+        return arm(k, ttl, unit);
+    }
+
+    /** Non bloquant : null si les permis ne sont pas disponibles tout de suite. */
+    public Lease tryLease(int k, long ttl, TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit");
+        return pool.tryAcquire(k) ? arm(k, ttl, unit) : null;
+    }
+
+    public ResourcePool pool() {
+        return pool;
+    }
+
+    /** Baux expirés sans avoir été rendus (fuites détectées). */
+    public long leakedLeases() {
+        return leakedLeases.snapshot();
+    }
+
+    /** Permis rendus au pool par le reaper. */
+    public long reclaimedPermits() {
+        return reclaimedPermits.snapshot();
+    }
+
+    /** close() appelés après expiration (détenteur lent plutôt que mort). */
+    public long lateReleases() {
+        return lateReleases.snapshot();
+    }
+
+    /** Baux actifs (échéances en attente dans la roue). */
+    public int activeLeases() {
+        return wheel.pending();
+    }
+
+    /** Arrête le reaper ; les baux encore actifs ne seront plus récupérés. */
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+    }
+
+    private Lease arm(int k, long ttl, TimeUnit unit) {
+        Lease l = new Lease(this, k);
+        synchronized (wheel) {
+            l.timeout = wheel.schedule(l::expire, ttl, unit);
+        }
+        return l;
+    }
+}
@@ -0,0 +1,338 @@
+package nebula.alloc;
+
+import nebula.core.Metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pool d'objets typés (buffers, connexions...) adossé à un {@link ResourcePool}
+ * : un permis = un objet vivant (créé et pas encore détruit). L'admission
+ * borne donc le nombre d'objets.
+ * <p>
+ * Chaque thread a un petit magasin local : le couple borrow/close courant ne
+ * touche que ce magasin, sans état partagé ni allocation. Débordement vers une
+ * pile partagée d'objets inactifs ; un emprunteur à court vole dans les
+ * magasins des autres threads avant d'attendre un permis.
+ * <p>
+ * Hooks : validation à l'emprunt (objet invalide détruit puis remplacé),
+ * destruction, et éviction des objets inactifs depuis trop longtemps
+ * ({@link #evictIdle(long, TimeUnit)}, à appeler périodiquement). Le magasin
+ * d'un thread terminé est vidé dans la pile partagée puis oublié.
+ */
+public class ObjectPool<T> {
+
+    /**
+     * Poignée réutilisable (une par objet) : {@code try (var p = pool.borrow())}.
+     * Une seule fermeture par emprunt : après close(), la poignée peut déjà
+     * appartenir à un autre emprunteur et ne doit plus servir.
+     */
+    public static final class Pooled<T> implements AutoCloseable {
+        private static final VarHandle BORROWED;
+
+        static {
+            try {
+                BORROWED = MethodHandles.lookup().findVarHandle(Pooled.class, "borrowed", boolean.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final ObjectPool<T> owner;
+        private final T obj;
+        private volatile boolean borrowed;
+        private long lastUsed; // publié par le dépôt (magasin / pile partagée)
+
+        private Pooled(ObjectPool<T> owner, T obj) {
+            this.owner = owner;
+            this.obj = obj;
+        }
+
+        public T get() {
+            return obj;
+        }
+
+        /** Rend l'objet au pool ; deux close() concurrents ne le rendent qu'une fois. */
+        @Override
+        public void close() {
+            if (BORROWED.compareAndSet(this, true, false))
+                owner.giveBack(this);
+        }
+    }
+
+    /** Magasin d'un thread : seul son propriétaire y dépose, tout le monde peut y voler. */
+    private static final class Magazine<T> {
+        final AtomicReferenceArray<Pooled<T>> slots;
+        final Thread owner;
+
+        Magazine(int size, Thread owner) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.owner = owner;
+        }
+
+        boolean push(Pooled<T> p) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) == null) {
+                    slots.set(i, p); // écriture complète : ordonnée avant la relecture de closed
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Pooled<T> pop() {
+            for (int i = slots.length() - 1; i >= 0; i--) {
+                if (slots.get(i) != null) {
+                    Pooled<T> p = slots.getAndSet(i, null); // course possible avec un voleur
+                    if (p != null)
+                        return p;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int DEFAULT_MAGAZINE = 4;
+    private static final long STEAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final ResourcePool admission;
+    private final Supplier<? extends T> factory;
+    private final Predicate<? super T> validator;
+    private final Consumer<? super T> destroyer;
+    private final int magazineSize;
+
+    private final ConcurrentLinkedDeque<Pooled<T>> idle = new ConcurrentLinkedDeque<>();
+    private final CopyOnWriteArrayList<Magazine<T>> magazines = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Magazine<T>> local;
+    private final Metrics created = new Metrics();
+    private final Metrics destroyed = new Metrics();
+    private volatile boolean closed;
+
+    public ObjectPool(ResourcePool admission, Supplier<? extends T> factory) {
+        this(admission, factory, x -> true, x -> {
+        }, DEFAULT_MAGAZINE);
+    }
+
+    public ObjectPool(ResourcePool admission, Supplier<? extends T> factory,
+            Predicate<? super T> validator, Consumer<? super T> destroyer, int magazineSize) {
+        this.admission = Objects.requireNonNull(admission, "admission");
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.validator = Objects.requireNonNull(validator, "validator");
+        this.destroyer = Objects.requireNonNull(destroyer, "destroyer");
+        if (magazineSize < 0)
+            throw new IllegalArgumentException("magazineSize>=0 required");
+        this.magazineSize = magazineSize;
+        this.local = ThreadLocal.withInitial(() -> {
+            pruneDead(); // la liste ne garde que les threads vivants
+            Magazine<T> m = new Magazine<>(this.magazineSize, Thread.currentThread());
+            magazines.add(m); // enregistré une fois par thread, pour le vol
+            return m;
+        });
+    }
+
+    /** Bloquant : objet inactif, sinon nouvel objet si l'admission le permet. */
+    public Pooled<T> borrow() throws InterruptedException {
+        return borrow(false, 0L);
+    }
+
+    /** Temporisé : renvoie null si aucun objet n'a pu être obtenu à temps. */
+    public Pooled<T> tryBorrow(long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(unit, "unit");
+        return borrow(true, unit.toNanos(timeout));
+    }
+
+    /** Détruit les objets inactifs depuis plus de maxIdle ; renvoie leur nombre. */
+    public int evictIdle(long maxIdle, TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit");
+        pruneDead();
+        final long limit = System.nanoTime() - unit.toNanos(maxIdle);
+        int n = 0;
+        // pile partagée : les plus anciens sont en queue
+        for (Iterator<Pooled<T>> it = idle.descendingIterator(); it.hasNext();) {
+            Pooled<T> p = it.next();
+            if (p.lastUsed - limit < 0 && idle.removeLastOccurrence(p)) {
+                destroy(p);
+                n++;
+            }
+        }
+        for (Magazine<T> m : magazines) {
+            for (int i = 0; i < m.slots.length(); i++) {
+                Pooled<T> p = m.slots.get(i);
+                if (p != null && p.lastUsed - limit < 0 && m.slots.compareAndSet(i, p, null)) {
+                    destroy(p);
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Détruit tous les objets inactifs ; les objets encore empruntés le seront à leur retour. */
+    public void close() {
+        closed = true;
+        destroyIdle();
+    }
+
+    /** Objets inactifs (pile partagée + magasins), instantané approximatif. */
+    public int idleCount() {
+        int n = idle.size();
+        for (Magazine<T> m : magazines) {
+            for (int i = 0; i < m.slots.length(); i++) {
+                if (m.slots.get(i) != null)
+                    n++;
+            }
+        }
+        return n;
+    }
+
+    /** Magasins enregistrés (threads vivants, plus les morts pas encore oubliés). */
+    int magazineCount() {
+        return magazines.size();
+    }
+
+    public long created() {
+        return created.snapshot();
+    }
+
+    public long destroyed() {
+        return destroyed.snapshot();
+    }
+
+    // ---------- interne ----------
+
+    private Pooled<T> borrow(boolean timed, long nanos) throws InterruptedException {
+        if (closed)
+            throw new IllegalStateException("pool closed");
+        final long deadline = System.nanoTime() + nanos;
+
+        // 1) magasin local puis pile partagée : pas de permis à prendre
+        Pooled<T> p = reuse(local.get().pop());
+        if (p == null)
+            p = reuse(idle.pollFirst());
+        if (p != null)
+            return p;
+
+        for (;;) {
+            // 2) nouvel objet si l'admission le permet
+            if (admission.tryAcquire(1))
+                return create();
+            // 3) vol dans les magasins des autres threads
+            p = reuse(steal());
+            if (p == null)
+                p = reuse(idle.pollFirst());
+            if (p != null)
+                return p;
+            // 4) attente bornée d'un permis, puis on retente le vol
+            long wait = STEAL_INTERVAL_NANOS;
+            if (timed) {
+                nanos = deadline - System.nanoTime();
+                if (nanos <= 0)
+                    return null;
+                wait = Math.min(wait, nanos);
+            }
+            if (admission.tryAcquire(1, wait, TimeUnit.NANOSECONDS))
+                return create();
+        }
+    }
+
+    /** Vide dans la pile partagée les magasins des threads terminés, et les oublie. */
+    private void pruneDead() {
+        for (Magazine<T> m : magazines) {
+            if (m.owner.isAlive())
+                continue;
+            magazines.remove(m);
+            for (int i = 0; i < m.slots.length(); i++) {
+                Pooled<T> p = m.slots.getAndSet(i, null); // course possible avec un voleur
+                if (p != null)
+                    idle.offerLast(p); // objets froids : en queue
+            }
+        }
+        if (closed)
+            destroyIdle();
+    }
+
+    /** Valide un candidat ; s'il est invalide, le détruit et essaie le suivant. */
+    private Pooled<T> reuse(Pooled<T> p) {
+        while (p != null) {
+            if (validator.test(p.obj)) {
+                p.borrowed = true;
+                return p;
+            }
+            destroy(p);
+            p = local.get().pop();
+            if (p == null)
+                p = idle.pollFirst();
+        }
+        return null;
+    }
+
+    private Pooled<T> create() {
+        T obj;
+        try {
+            obj = factory.get();
+        } catch (RuntimeException | Error e) {
+            admission.release(1);
+            throw e;
+        }
+        if (obj == null) {
+            admission.release(1);
+            throw new NullPointerException("factory returned null");
+        }
+        created.mark();
+        Pooled<T> p = new Pooled<>(this, obj);
+        p.borrowed = true;
+        return p;
+    }
+
+    private void giveBack(Pooled<T> p) {
+        p.lastUsed = System.nanoTime();
+        if (closed) {
+            destroy(p);
+            return;
+        }
+        if (!local.get().push(p))
+            idle.offerFirst(p); // LIFO : les objets chauds ressortent en premier
+        if (closed)
+            destroyIdle(); // close() a pu vider avant notre dépôt : on ne laisse rien derrière
+    }
+
+    /** Détruit tout ce qui est inactif (pile partagée et magasins) ; sûr en concurrence. */
+    private void destroyIdle() {
+        Pooled<T> p;
+        while ((p = idle.pollFirst()) != null)
+            destroy(p);
+        while ((p = steal()) != null)
+            destroy(p);
+    }
+
+    private Pooled<T> steal() {
+        for (Magazine<T> m : magazines) {
+            for (int i = 0; i < m.slots.length(); i++) {
+                if (m.slots.get(i) != null) {
+                    Pooled<T> p = m.slots.getAndSet(i, null);
+                    if (p != null)
+                        return p;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void destroy(Pooled<T> p) {
+        try {
+            destroyer.accept(p.obj);
+        } finally {
+            destroyed.mark();
+            admission.release(1);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package nebula.alloc;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** k permis détenus sur un pool ; {@link #close()} les rend (une seule fois). */
+public final class Permit implements AutoCloseable {
+    private final ResourcePool pool;
+    private final int k;
+    private final long since; // remise des permis : la détention se mesure depuis là
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    Permit(ResourcePool pool, int k) {
+        this.pool = pool;
+        this.k = k;
+        this.since = System.nanoTime();
+    }
+
+    public int permits() {
+        return k;
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    @Override
+    public void close() {
+        if (!released.compareAndSet(false, true))
+            return;
+        if (pool instanceof ResourcePoolFifo f)
+            f.release(k, since); // détention exacte, quel que soit le thread
+        else
+            pool.release(k);
+    }
+}
@@ -0,0 +1,186 @@
+package nebula.alloc;
+
+import nebula.core.Histogram;
+import nebula.core.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mesures d'un pool instrumenté : temps d'attente (appel → permis obtenus) et
+ * temps de détention (permis obtenus → release), en ns, par classe de k
+ * (1, 2-3, 4-7, ...), plus profondeur de file courante et maximale. Tout se lit
+ * pendant que le pool tourne.
+ * <p>
+ * Détention : un {@link Permit} porte l'instant de sa remise, sa détention est
+ * exacte quel que soit le thread qui le ferme. Un release(k) nu est apparié à
+ * l'acquire le plus récent de même k fait par le même thread ; les libérations
+ * faites par un autre thread, et les acquisitions au-delà de la pile par
+ * thread, sont comptées dans {@link #unmatchedReleases()}. Une entrée dont les
+ * permis ont forcément été rendus ailleurs (la pile du thread détient plus que
+ * les permis encore pris sur le pool) est oubliée, jamais appariée plus tard.
+ */
+public final class PoolStats {
+
+    private static final int K_CLASSES = 32;
+    private static final int HOLD_STACK = 16;
+
+    /** Acquisitions en cours d'un thread (pile bornée, sans allocation). */
+    private static final class Holds {
+        final int[] ks = new int[HOLD_STACK];
+        final long[] since = new long[HOLD_STACK];
+        int n;
+        long sum; // somme des ks[0..n)
+
+        void push(int k, long t) {
+            ks[n] = k;
+            since[n] = t;
+            n++;
+            sum += k;
+        }
+
+        void remove(int i) {
+            sum -= ks[i];
+            System.arraycopy(ks, i + 1, ks, i, n - i - 1);
+            System.arraycopy(since, i + 1, since, i, n - i - 1);
+            n--;
+        }
+    }
+
+    private final AtomicReferenceArray<Histogram> wait = new AtomicReferenceArray<>(K_CLASSES);
+    private final AtomicReferenceArray<Histogram> hold = new AtomicReferenceArray<>(K_CLASSES);
+    private final ThreadLocal<Holds> holds = ThreadLocal.withInitial(Holds::new);
+    private final Metrics timeouts = new Metrics();
+    private final Metrics unmatched = new Metrics();
+    private final AtomicLong held = new AtomicLong(); // permis remis et pas encore rendus
+    private volatile int depth, peak; // écrits sous le verrou du pool
+
+    PoolStats() {
+    }
+
+    /** Histogramme des attentes pour la classe de k (créé à la demande). */
+    public Histogram waitTime(int k) {
+        return histogram(wait, k);
+    }
+
+    /** Histogramme des détentions pour la classe de k (créé à la demande). */
+    public Histogram holdTime(int k) {
+        return histogram(hold, k);
+    }
+
+    public int queueDepth() {
+        return depth;
+    }
+
+    public int peakQueueDepth() {
+        return peak;
+    }
+
+    /** tryAcquire temporisés arrivés à échéance. */
+    public long timeouts() {
+        return timeouts.snapshot();
+    }
+
+    public long unmatchedReleases() {
+        return unmatched.snapshot();
+    }
+
+    /** Résumé lisible : p50/p99 d'attente et de détention (µs) par classe de k. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth=").append(depth).append(" peak=").append(peak)
+                .append(" timeouts=").append(timeouts()).append('\n');
+        for (int c = 0; c < K_CLASSES; c++) {
+            Histogram w = wait.get(c), h = hold.get(c);
+            if (w == null && h == null)
+                continue;
+            int lo = 1 << c, hi = (c == 30) ? Integer.MAX_VALUE : (1 << (c + 1)) - 1;
+            sb.append(String.format("k=%d..%d wait p50=%dus p99=%dus (n=%d) hold p50=%dus p99=%dus (n=%d)%n",
+                    lo, hi,
+                    us(w, 50), us(w, 99), w == null ? 0 : w.count(),
+                    us(h, 50), us(h, 99), h == null ? 0 : h.count()));
+        }
+        return sb.toString();
+    }
+
+    // ---------- alimentation par le pool ----------
+
+    /** Permis obtenus par le thread courant après une attente depuis t0. */
+    void acquired(int k, long t0) {
+        long now = System.nanoTime();
+        waitTime(k).record(now - t0);
+        long h = held.addAndGet(k);
+        Holds s = holds.get();
+        forgetStale(s, h - k);
+        if (s.n == HOLD_STACK)
+            s.remove(0); // pile pleine : la plus ancienne est oubliée, son release sera non apparié
+        s.push(k, now);
+    }
+
+    /** Permis remis sous forme de {@link Permit} (acquireAsync) : la détention suit le Permit. */
+    void handedOff(int k, long t0) {
+        waitTime(k).record(System.nanoTime() - t0);
+        held.addAndGet(k);
+    }
+
+    /** Permis remis à l'instant since (Permit), rendus maintenant par n'importe quel thread. */
+    void released(int k, long since) {
+        held.addAndGet(-k);
+        holdTime(k).record(System.nanoTime() - since);
+    }
+
+    /** release(k) nu : apparié à l'acquisition la plus récente de même k du thread courant. */
+    void released(int k) {
+        long h = held.addAndGet(-k);
+        Holds s = holds.get();
+        forgetStale(s, h + k);
+        for (int i = s.n - 1; i >= 0; i--) {
+            if (s.ks[i] == k) {
+                holdTime(k).record(System.nanoTime() - s.since[i]);
+                s.remove(i);
+                return;
+            }
+        }
+        unmatched.mark();
+    }
+
+    /**
+     * Le thread ne peut pas détenir plus que les permis encore pris sur le
+     * pool : au-delà, les entrées les plus anciennes ont été rendues par un
+     * autre thread (déjà comptées non appariées) et sont oubliées.
+     */
+    private static void forgetStale(Holds s, long limit) {
+        while (s.n > 0 && s.sum > limit)
+            s.remove(0);
+    }
+
+    void timedOut() {
+        timeouts.mark();
+    }
+
+    /** Sous le verrou du pool. */
+    void queueDepth(int d) {
+        depth = d;
+        if (d > peak)
+            peak = d;
+    }
+
+    // ---------- interne ----------
+
+    private static Histogram histogram(AtomicReferenceArray<Histogram> a, int k) {
+        if (k <= 0)
+            throw new IllegalArgumentException("k>0 required");
+        int c = 31 - Integer.numberOfLeadingZeros(k);
+        Histogram h = a.get(c);
+        if (h == null) {
+            a.compareAndSet(c, null, new Histogram());
+            h = a.get(c);
+        }
+        return h;
+    }
+
+    private static long us(Histogram h, double q) {
+        return h == null ? 0 : TimeUnit.NANOSECONDS.toMicros(h.percentile(q));
+    }
+}
@@ -0,0 +1,16 @@
+package nebula.alloc;
+
+/**
+ * Pool dont la capacité peut changer à chaud (ex. autoscaler qui ajoute des
+ * réplicas), sans reconstruire le pool.
+ */
+public interface ResizableResourcePool extends ResourcePool {
+
+    /**
+     * Agrandir sert aussitôt les demandes devenues satisfaisables. Réduire ne
+     * reprend rien aux détenteurs : les libérations suivantes épongent la dette
+     * ({@link #available()} peut alors être négatif) ; une demande en attente
+     * devenue plus grande que la capacité échoue (IllegalStateException).
+     */
+    void setCapacity(int capacity);
+}
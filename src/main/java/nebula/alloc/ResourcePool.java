@@ -1,8 +1,16 @@
 package nebula.alloc;
 
+import java.util.concurrent.TimeUnit;
+
 public interface ResourcePool {
     void acquire(int k) throws InterruptedException;
 
+    /** Non bloquant : prend k permis immédiatement, sinon renvoie false. */
+    boolean tryAcquire(int k);
+
+    /** Temporisé : attend au plus timeout, puis abandonne (renvoie false). */
+    boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException;
+
     void release(int k);
 
     int capacity();
@@ -1,39 +1,117 @@
 package nebula.alloc;
 
-public class ResourcePoolDirect implements ResourcePool {
-    private final int cap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class ResourcePoolDirect implements ResizableResourcePool {
+    private int cap;
     private int avail;
+    private final PoolStats stats; // null : pas d'instrumentation
+    private int waiting; // threads dans wait() (mode instrumenté)
 
     public ResourcePoolDirect(int capacity) {
+        this(capacity, false);
+    }
+
+    /** instrumented : mesure attentes/détentions, voir {@link #stats()}. */
+    public ResourcePoolDirect(int capacity, boolean instrumented) {
         if (capacity <= 0)
             throw new IllegalArgumentException("capacity>0 required");
         this.cap = capacity;
         this.avail = capacity;
+        this.stats = instrumented ? new PoolStats() : null;
+    }
+
+    /** Mesures du pool, ou null s'il n'est pas instrumenté. */
+    public PoolStats stats() {
+        return stats;
     }
 
     @Override
     public synchronized void acquire(int k) throws InterruptedException {
         if (k <= 0 || k > cap)
             throw new IllegalArgumentException("0 < k ≤ capacity required");
+        final long t0 = (stats != null) ? System.nanoTime() : 0L;
         while (avail < k) {
-            wait(); // réveils spurious possibles => while
+            enterWait();
+            try {
+                wait(); // réveils spurious possibles => while
+            } finally {
+                exitWait();
+            }
+            checkStillFits(k);
         }
         avail -= k;
-        // invariant: 0 ≤ avail ≤ cap
+        // invariant: avail ≤ cap (avail < 0 seulement après une réduction)
+        if (stats != null)
+            stats.acquired(k, t0);
     }
 
     @Override
-    public synchronized void release(int k) {
+    public synchronized boolean tryAcquire(int k) {
         if (k <= 0 || k > cap)
             throw new IllegalArgumentException("0 < k ≤ capacity required");
+        if (avail < k)
+            return false;
+        avail -= k;
+        if (stats != null)
+            stats.acquired(k, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        Objects.requireNonNull(unit, "unit");
+        long nanos = unit.toNanos(timeout);
+        final long t0 = System.nanoTime();
+        final long deadline = t0 + nanos;
+        while (avail < k) {
+            if (nanos <= 0) {
+                if (stats != null)
+                    stats.timedOut();
+                return false;
+            }
+            enterWait();
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            } finally {
+                exitWait();
+            }
+            checkStillFits(k);
+            nanos = deadline - System.nanoTime(); // reste à attendre
+        }
+        avail -= k;
+        if (stats != null)
+            stats.acquired(k, t0);
+        return true;
+    }
+
+    @Override
+    public synchronized void release(int k) {
+        // pas de borne k ≤ cap : un détenteur peut rendre plus que la capacité réduite
+        if (k <= 0)
+            throw new IllegalArgumentException("k>0 required");
         avail += k;
         if (avail > cap) { // protection contre sur-liberation
             avail -= k;
             throw new IllegalStateException("avail overflow");
         }
+        if (stats != null)
+            stats.released(k);
         notifyAll();
     }
 
+    @Override
+    public synchronized void setCapacity(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        avail += capacity - cap; // réduction : avail peut devenir négatif (dette)
+        cap = capacity;
+        notifyAll(); // agrandissement : de nouvelles demandes passent ; réduction : trop grosses => échec
+    }
+
     @Override
     public synchronized int capacity() {
         return cap;
@@ -43,4 +121,19 @@ public class ResourcePoolDirect implements ResourcePool {
     public synchronized int available() {
         return avail;
     }
+
+    private void enterWait() {
+        if (stats != null)
+            stats.queueDepth(++waiting);
+    }
+
+    private void exitWait() {
+        if (stats != null)
+            stats.queueDepth(--waiting);
+    }
+
+    private void checkStillFits(int k) {
+        if (k > cap)
+            throw new IllegalStateException("capacity shrunk below request");
+    }
 }
@@ -1,71 +1,390 @@
 package nebula.alloc;
 
-import java.util.LinkedList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class ResourcePoolFifo implements ResourcePool {
+/**
+ * Pool FIFO strict. Les permis libérés sont remis directement à la tête de file
+ * (hand-off) : seul le thread servi est réveillé, et seulement quand
+ * {@code avail >= head.k}. Chaque thread réutilise son propre nœud d'attente :
+ * le chemin bloquant n'alloue pas. La capacité est redimensionnable à chaud
+ * ({@link #setCapacity(int)}).
+ * <p>
+ * {@link #acquireAsync(int)} place une demande sans thread bloqué dans la même
+ * file FIFO : le future est complété hors verrou, sur le thread qui libère ou
+ * sur l'exécuteur fourni au constructeur.
+ * <p>
+ * En mode instrumenté, {@link #stats()} expose temps d'attente, temps de
+ * détention et profondeur de file, lisibles pendant que le pool tourne.
+ */
+public class ResourcePoolFifo implements ResizableResourcePool {
 
-    private static final class Req {
-        final int k;
+    /** Demande asynchrone : pas de Condition, un future à compléter. */
+    private static final class AsyncWaiter extends WaitQueue.Node {
+        final PermitFuture future;
+        final long since = System.nanoTime(); // début de l'attente (stats)
+        AsyncWaiter nextDone; // chaîne des futures à compléter après unlock
 
-        Req(int k) {
+        AsyncWaiter(ResourcePoolFifo pool, int k) {
+            super(null);
             this.k = k;
+            this.future = new PermitFuture(pool, this);
         }
     }
 
-    private final int cap;
+    /**
+     * Annuler le future, ou le compléter de l'extérieur (orTimeout,
+     * completeOnTimeout, complete / completeExceptionally de l'appelant), retire
+     * la demande de la file, ou rend les permis déjà remis. Le pool complète
+     * par grant / fail.
+     */
+    private static final class PermitFuture extends CompletableFuture<Permit> {
+        private final ResourcePoolFifo pool;
+        private final AsyncWaiter w;
+
+        PermitFuture(ResourcePoolFifo pool, AsyncWaiter w) {
+            this.pool = pool;
+            this.w = w;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            pool.cancelWaiter(w);
+            // déjà servi mais pas encore complété : complete() échouera => permis rendus
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean complete(Permit value) {
+            pool.cancelWaiter(w);
+            return super.complete(value);
+        }
+
+        @Override
+        public boolean completeExceptionally(Throwable ex) {
+            pool.cancelWaiter(w);
+            return super.completeExceptionally(ex);
+        }
+
+        boolean grant(Permit p) {
+            return super.complete(p);
+        }
+
+        boolean fail(Throwable ex) {
+            return super.completeExceptionally(ex);
+        }
+    }
+
+    private volatile int cap; // écrit sous verrou, lu sans pour la validation
     private int avail;
-    private final LinkedList<Req> q = new LinkedList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WaitQueue q;
+    // un nœud (et sa Condition) par thread et par pool, créé une seule fois
+    private final ThreadLocal<WaitQueue.Node> nodes = ThreadLocal
+            .withInitial(() -> new WaitQueue.Node(lock.newCondition()));
+    private final Executor completionExecutor; // null : thread qui libère
+    private AsyncWaiter doneHead, doneTail; // servis sous verrou, complétés après
+    private final PoolStats stats; // null : pas d'instrumentation
 
     public ResourcePoolFifo(int capacity) {
+        this(capacity, null, false);
+    }
+
+    /** instrumented : mesure attentes/détentions, voir {@link #stats()}. */
+    public ResourcePoolFifo(int capacity, boolean instrumented) {
+        this(capacity, null, instrumented);
+    }
+
+    /** completionExecutor : où compléter les futures d'acquireAsync (null = thread qui libère). */
+    public ResourcePoolFifo(int capacity, Executor completionExecutor) {
+        this(capacity, completionExecutor, false);
+    }
+
+    public ResourcePoolFifo(int capacity, Executor completionExecutor, boolean instrumented) {
         if (capacity <= 0)
             throw new IllegalArgumentException("capacity>0 required");
         this.cap = capacity;
         this.avail = capacity;
+        this.completionExecutor = completionExecutor;
+        this.stats = instrumented ? new PoolStats() : null;
+        this.q = new WaitQueue(stats);
+    }
+
+    /** Mesures du pool, ou null s'il n'est pas instrumenté. */
+    public PoolStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void acquire(int k) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        final long t0 = (stats != null) ? System.nanoTime() : 0L;
+        lock.lockInterruptibly();
+        try {
+            awaitTurn(k, false, 0L);
+        } finally {
+            unlockAndComplete();
+        }
+        if (stats != null)
+            stats.acquired(k, t0); // hors verrou : l'histogramme est sans verrou
     }
 
     @Override
-    public synchronized void acquire(int k) throws InterruptedException {
+    public boolean tryAcquire(int k) {
         if (k <= 0 || k > cap)
             throw new IllegalArgumentException("0 < k ≤ capacity required");
-        final Req r = new Req(k);
+        lock.lock();
+        try {
+            // pas de resquille : seulement si personne n'attend
+            if (q.isEmpty() && avail >= k) {
+                avail -= k;
+                if (stats != null)
+                    stats.acquired(k, System.nanoTime());
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        Objects.requireNonNull(unit, "unit");
+        final long t0 = (stats != null) ? System.nanoTime() : 0L;
+        final boolean ok;
+        lock.lockInterruptibly();
+        try {
+            ok = awaitTurn(k, true, unit.toNanos(timeout));
+        } finally {
+            unlockAndComplete();
+        }
+        if (stats != null) {
+            if (ok)
+                stats.acquired(k, t0);
+            else
+                stats.timedOut();
+        }
+        return ok;
+    }
+
+    /**
+     * Prend k permis, en passant par la file si besoin. Sous verrou.
+     * En mode temporisé, renvoie false à l'échéance après s'être retiré de la file.
+     */
+    private boolean awaitTurn(int k, boolean timed, long nanos) throws InterruptedException {
+        if (k > cap) // capacité réduite entre la validation et la prise du verrou
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        if (q.isEmpty() && avail >= k) {
+            avail -= k;
+            return true;
+        }
+        if (timed && nanos <= 0)
+            return false;
+        final WaitQueue.Node r = nodes.get();
+        r.k = k;
+        r.granted = false;
+        r.failed = false;
         q.addLast(r);
         try {
-            for (;;) {
-                if (q.peekFirst() == r && avail >= k) {
-                    avail -= k;
-                    q.removeFirst();
-                    notifyAll(); // réveille le prochain en file (ou libère des producers)
-                    return;
+            while (!r.granted) {
+                if (r.failed)
+                    throw new IllegalStateException("capacity shrunk below request");
+                if (!timed) {
+                    r.cond.await(); // réveil ciblé (spurious possibles => while)
+                } else if (nanos > 0) {
+                    nanos = r.cond.awaitNanos(nanos);
+                } else {
+                    // échéance : on quitte la file sans bloquer ceux de derrière
+                    q.remove(r);
+                    grantWaiters();
+                    return false;
                 }
-                wait();
             }
+            return true;
         } catch (InterruptedException ie) {
-            // IMPORTANT : se retirer de la file si on attendait encore
-            if (q.remove(r))
-                notifyAll();
+            if (r.granted) {
+                // déjà servi : on garde les permis, on conserve l'interruption
+                Thread.currentThread().interrupt();
+                return true;
+            }
+            // IMPORTANT : se retirer de la file (O(1)) ; si on bloquait la tête,
+            // ceux de derrière peuvent maintenant passer
+            q.remove(r);
+            grantWaiters();
             throw ie;
         }
     }
 
-    @Override
-    public synchronized void release(int k) {
+    /**
+     * Asynchrone : le future est complété par un {@link Permit} quand la demande
+     * arrive en tête et que les permis sont là (même ordre FIFO que acquire).
+     * Aucun thread n'est parké pendant l'attente.
+     */
+    public CompletableFuture<Permit> acquireAsync(int k) {
         if (k <= 0 || k > cap)
             throw new IllegalArgumentException("0 < k ≤ capacity required");
-        avail += k;
-        if (avail > cap) {
-            avail -= k;
-            throw new IllegalStateException("avail overflow");
+        lock.lock();
+        try {
+            if (k > cap)
+                throw new IllegalArgumentException("0 < k ≤ capacity required");
+            if (q.isEmpty() && avail >= k) {
+                avail -= k;
+                if (stats != null)
+                    stats.handedOff(k, System.nanoTime());
+                return CompletableFuture.completedFuture(new Permit(this, k));
+            }
+            AsyncWaiter w = new AsyncWaiter(this, k);
+            q.addLast(w);
+            return w.future;
+        } finally {
+            lock.unlock();
         }
-        notifyAll();
     }
 
     @Override
-    public synchronized int capacity() {
+    public void release(int k) {
+        release(k, -1L);
+    }
+
+    /** since ≥ 0 : permis remis à cet instant (Permit) ; sinon apparié par le thread courant. */
+    void release(int k, long since) {
+        // pas de borne k ≤ cap : un détenteur peut rendre plus que la capacité réduite
+        if (k <= 0)
+            throw new IllegalArgumentException("k>0 required");
+        lock.lock();
+        try {
+            avail += k;
+            if (avail > cap) {
+                avail -= k;
+                throw new IllegalStateException("avail overflow");
+            }
+            if (stats != null) {
+                if (since >= 0)
+                    stats.released(k, since);
+                else
+                    stats.released(k);
+            }
+            grantWaiters();
+        } finally {
+            unlockAndComplete();
+        }
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        lock.lock();
+        try {
+            // réduction : avail peut devenir négatif, les libérations épongent la dette
+            avail += capacity - cap;
+            cap = capacity;
+            // les demandes désormais impossibles échouent au lieu de boucher la file
+            for (WaitQueue.Node n = q.peekFirst(), next; n != null; n = next) {
+                next = n.next;
+                if (n.k > capacity) {
+                    q.remove(n);
+                    n.failed = true;
+                    wake(n);
+                }
+            }
+            grantWaiters(); // agrandissement : sert exactement les têtes satisfaisables
+        } finally {
+            unlockAndComplete();
+        }
+    }
+
+    @Override
+    public int capacity() {
         return cap;
     }
 
     @Override
-    public synchronized int available() {
-        return avail;
+    public int available() {
+        lock.lock();
+        try {
+            return avail;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sert la tête tant qu'elle peut l'être (ordre FIFO strict). Sous verrou. */
+    private void grantWaiters() {
+        WaitQueue.Node h;
+        while ((h = q.peekFirst()) != null && avail >= h.k) {
+            avail -= h.k;
+            q.remove(h);
+            h.granted = true;
+            wake(h);
+        }
+    }
+
+    /** Réveil ciblé d'un thread, ou future mis de côté pour après l'unlock. Sous verrou. */
+    private void wake(WaitQueue.Node n) {
+        if (n instanceof AsyncWaiter w) {
+            if (doneTail == null)
+                doneHead = w;
+            else
+                doneTail.nextDone = w;
+            doneTail = w;
+        } else {
+            n.cond.signal(); // un seul thread réveillé : celui qui est servi
+        }
+    }
+
+    /** Libère le verrou puis complète les futures servis (code client hors verrou). */
+    private void unlockAndComplete() {
+        AsyncWaiter w = doneHead;
+        doneHead = doneTail = null;
+        lock.unlock();
+        while (w != null) {
+            AsyncWaiter next = w.nextDone;
+            w.nextDone = null;
+            complete(w);
+            w = next;
+        }
+    }
+
+    private void complete(AsyncWaiter w) {
+        if (completionExecutor == null) {
+            completeNow(w);
+            return;
+        }
+        try {
+            completionExecutor.execute(() -> completeNow(w));
+        } catch (RejectedExecutionException e) {
+            completeNow(w);
+        }
+    }
+
+    private void completeNow(AsyncWaiter w) {
+        if (w.failed) {
+            w.future.fail(new IllegalStateException("capacity shrunk below request"));
+            return;
+        }
+        if (stats != null)
+            stats.handedOff(w.k, w.since);
+        Permit p = new Permit(this, w.k);
+        if (!w.future.grant(p))
+            p.close(); // annulé entre-temps : les permis retournent dans la file
+    }
+
+    private void cancelWaiter(AsyncWaiter w) {
+        lock.lock();
+        try {
+            if (q.remove(w))
+                grantWaiters(); // on bloquait peut-être la tête
+        } finally {
+            unlockAndComplete();
+        }
     }
 }
@@ -0,0 +1,136 @@
+package nebula.alloc;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pool à chemin rapide sans verrou : le compteur de permis est un mot atomique
+ * (CAS). On ne passe par la file d'attente (threads parkés) que si les permis
+ * manquent. Les attentes sont servies dans l'ordre d'arrivée ; un nouvel
+ * arrivant ne prend le chemin rapide que si personne n'attend.
+ */
+public class ResourcePoolLockFree implements ResourcePool {
+
+    private static final class Waiter {
+        final Thread thread = Thread.currentThread();
+        final int k;
+
+        Waiter(int k) {
+            this.k = k;
+        }
+    }
+
+    private final int cap;
+    private final AtomicInteger avail;
+    private final ConcurrentLinkedQueue<Waiter> q = new ConcurrentLinkedQueue<>();
+
+    public ResourcePoolLockFree(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        this.cap = capacity;
+        this.avail = new AtomicInteger(capacity);
+    }
+
+    @Override
+    public void acquire(int k) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        awaitTurn(k, false, 0L);
+    }
+
+    @Override
+    public boolean tryAcquire(int k) {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        return q.isEmpty() && tryTake(k);
+    }
+
+    @Override
+    public boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        Objects.requireNonNull(unit, "unit");
+        return awaitTurn(k, true, unit.toNanos(timeout));
+    }
+
+    private boolean awaitTurn(int k, boolean timed, long nanos) throws InterruptedException {
+        if (q.isEmpty() && tryTake(k))
+            return true; // chemin rapide : aucun moniteur, un seul CAS
+        if (timed && nanos <= 0)
+            return false;
+
+        final long deadline = System.nanoTime() + nanos;
+        final Waiter w = new Waiter(k);
+        q.add(w);
+        try {
+            for (;;) {
+                if (q.peek() == w && tryTake(k)) {
+                    q.poll();
+                    wakeHead(); // le suivant peut peut-être passer aussi
+                    return true;
+                }
+                if (!timed) {
+                    LockSupport.park(this); // unpark avant park => retour immédiat
+                } else {
+                    nanos = deadline - System.nanoTime();
+                    if (nanos <= 0) {
+                        q.remove(w);
+                        wakeHead();
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, nanos);
+                }
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        } catch (InterruptedException ie) {
+            // se retirer de la file ; si on était en tête, passer la main
+            q.remove(w);
+            wakeHead();
+            throw ie;
+        }
+    }
+
+    @Override
+    public void release(int k) {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        for (;;) {
+            int a = avail.get();
+            if (a + k > cap) // protection contre sur-liberation
+                throw new IllegalStateException("avail overflow");
+            if (avail.compareAndSet(a, a + k))
+                break;
+        }
+        wakeHead();
+    }
+
+    @Override
+    public int capacity() {
+        return cap;
+    }
+
+    @Override
+    public int available() {
+        return avail.get();
+    }
+
+    private boolean tryTake(int k) {
+        for (;;) {
+            int a = avail.get();
+            if (a < k)
+                return false;
+            if (avail.compareAndSet(a, a - k))
+                return true;
+        }
+    }
+
+    private void wakeHead() {
+        Waiter h = q.peek();
+        if (h != null)
+            LockSupport.unpark(h.thread);
+    }
+}
@@ -0,0 +1,365 @@
+package nebula.alloc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool partagé entre processus d'une même machine : l'état vit dans un fichier
+ * mappé en mémoire et n'est modifié que par CAS (VarHandle sur le
+ * MappedByteBuffer). Tous les processus qui ouvrent le même fichier partagent
+ * la même capacité.
+ * <p>
+ * Équité : file à tickets (nextTicket / serving) entre processus ; dans un
+ * processus, un verrou équitable ne laisse qu'un thread à la fois tenir un
+ * ticket. Pas de réveil inter-processus : les attentes sondent avec un
+ * backoff borné (parkNanos).
+ * <p>
+ * Pannes : chaque processus occupe un slot (pid, date de démarrage, permis
+ * détenus, ticket). Les permis d'un processus mort sont récupérés par le
+ * premier attendant qui le détecte, et son ticket est sauté.
+ */
+public class ResourcePoolMapped implements ResourcePool, AutoCloseable {
+
+    private static final int MAGIC = 0x4E425250; // "NBRP"
+    private static final int MAX_SLOTS = 64;
+
+    // en-tête
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_CAP = 4;
+    private static final int OFF_AVAIL = 8;
+    private static final int OFF_NEXT_TICKET = 16;
+    private static final int OFF_SERVING = 24;
+    // slots (un par instance ouverte)
+    private static final int SLOTS = 64;
+    private static final int SLOT_SIZE = 32;
+    private static final int S_PID = 0; // 0 : libre, RECLAIMING : en cours de récupération
+    private static final int S_START = 8; // date de démarrage (ms epoch), 0 si inconnue
+    private static final int S_TICKET = 16; // ticket en attente, NO_TICKET sinon
+    private static final int S_HELD = 24; // permis détenus
+    private static final int S_ABANDONED = 28; // 1 : ticket abandonné (timeout / interruption)
+    private static final int FILE_SIZE = SLOTS + MAX_SLOTS * SLOT_SIZE;
+
+    private static final long RECLAIMING = -1L;
+    private static final long NO_TICKET = -1L;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buf;
+    private final int cap;
+    private final long pid, start; // identité de ce processus dans son slot
+    private final int slot; // offset du slot
+    private final ReentrantLock turn = new ReentrantLock(true); // un ticket à la fois par instance
+    private volatile boolean closed;
+
+    /** Ouvre (ou crée) le pool du fichier ; capacity doit être celle du fichier existant. */
+    public ResourcePoolMapped(Path file, int capacity) throws IOException {
+        this(file, capacity, ProcessHandle.current().pid(),
+                ProcessHandle.current().info().startInstant().map(i -> i.toEpochMilli()).orElse(0L));
+    }
+
+    /** Identité imposée (tests : simuler un autre processus). */
+    ResourcePoolMapped(Path file, int capacity, long pid, long start) throws IOException {
+        Objects.requireNonNull(file, "file");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        this.pid = pid;
+        this.start = start;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            // initialisation sous verrou de fichier : un seul processus formate
+            FileLock lock = channel.lock();
+            try {
+                if ((int) INT.getVolatile(buf, OFF_MAGIC) != MAGIC) {
+                    for (int i = 0; i < FILE_SIZE; i += 8)
+                        LONG.setVolatile(buf, i, 0L);
+                    for (int s = 0; s < MAX_SLOTS; s++)
+                        LONG.setVolatile(buf, SLOTS + s * SLOT_SIZE + S_TICKET, NO_TICKET);
+                    INT.setVolatile(buf, OFF_CAP, capacity);
+                    INT.setVolatile(buf, OFF_AVAIL, capacity);
+                    INT.setVolatile(buf, OFF_MAGIC, MAGIC); // en dernier : fichier valide
+                } else if ((int) INT.getVolatile(buf, OFF_CAP) != capacity) {
+                    throw new IllegalArgumentException(
+                            "capacity mismatch: file has " + (int) INT.getVolatile(buf, OFF_CAP));
+                }
+                this.cap = capacity;
+                this.slot = claimSlot();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void acquire(int k) throws InterruptedException {
+        checkK(k);
+        turn.lockInterruptibly();
+        try {
+            awaitTurn(k, false, 0L);
+        } finally {
+            turn.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int k) {
+        checkK(k);
+        if (!turn.tryLock())
+            return false;
+        try {
+            // pas de resquille : seulement si aucun ticket n'est en attente ; les
+            // tickets orphelins en tête (abandonnés, morts) sont sautés d'abord,
+            // sinon personne ne les saute tant qu'aucun acquire bloquant ne tourne
+            long s;
+            while ((s = (long) LONG.getVolatile(buf, OFF_SERVING)) != (long) LONG.getVolatile(buf, OFF_NEXT_TICKET)) {
+                skipIfOrphan(s);
+                if ((long) LONG.getVolatile(buf, OFF_SERVING) == s)
+                    return false; // propriétaire vivant en tête : son tour
+            }
+            return take(k);
+        } finally {
+            turn.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        checkK(k);
+        Objects.requireNonNull(unit, "unit");
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!turn.tryLock(timeout, unit))
+            return false;
+        try {
+            return awaitTurn(k, true, deadline);
+        } finally {
+            turn.unlock();
+        }
+    }
+
+    @Override
+    public void release(int k) {
+        // fermé : le slot est rendu (peut-être déjà repris par un autre), held n'est plus le nôtre
+        if (closed)
+            throw new IllegalStateException("pool closed");
+        if (k <= 0)
+            throw new IllegalArgumentException("k>0 required");
+        int a;
+        do {
+            a = (int) INT.getVolatile(buf, OFF_AVAIL);
+            if (a + k > cap)
+                throw new IllegalStateException("avail overflow");
+        } while (!INT.compareAndSet(buf, OFF_AVAIL, a, a + k));
+        // avail d'abord : un crash entre les deux sur-rend, borné par cap à la récupération
+        INT.getAndAdd(buf, slot + S_HELD, -k);
+    }
+
+    @Override
+    public int capacity() {
+        return cap;
+    }
+
+    @Override
+    public int available() {
+        return (int) INT.getVolatile(buf, OFF_AVAIL);
+    }
+
+    /** Permis détenus par cette instance. */
+    public int held() {
+        return (int) INT.getVolatile(buf, slot + S_HELD);
+    }
+
+    /** Rend les permis encore détenus et libère le slot. */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        // slot déjà récupéré (processus jugé mort) : rien à rendre
+        if (LONG.compareAndSet(buf, slot + S_PID, pid, RECLAIMING))
+            freeSlot(slot);
+        channel.close();
+    }
+
+    // ---------- file à tickets ----------
+
+    /** Sous le verrou local : attend que notre ticket soit servi et que k permis soient là. */
+    private boolean awaitTurn(int k, boolean timed, long deadline) throws InterruptedException {
+        long t = takeTicket();
+        long park = MIN_PARK_NANOS;
+        for (;;) {
+            long s = (long) LONG.getVolatile(buf, OFF_SERVING);
+            if (s == t) {
+                if (take(k)) {
+                    LONG.setVolatile(buf, slot + S_TICKET, NO_TICKET);
+                    LONG.compareAndSet(buf, OFF_SERVING, t, t + 1);
+                    return true;
+                }
+                reclaimDead(); // les permis manquants sont peut-être chez un mort
+            } else if (s > t) {
+                t = takeTicket(); // ticket sauté (jugé abandonné) : on reprend une place
+                continue;
+            } else {
+                skipIfOrphan(s);
+            }
+            if (Thread.interrupted()) {
+                abandon(t);
+                throw new InterruptedException();
+            }
+            if (timed) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    abandon(t);
+                    return false;
+                }
+                park = Math.min(park, left);
+            }
+            LockSupport.parkNanos(this, park);
+            park = Math.min(park << 1, MAX_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Renvoie le ticket du slot : reprend un ticket abandonné encore en file,
+     * sinon en tire un nouveau. Le slot annonce le ticket avant le CAS, pour
+     * qu'aucun ticket émis ne soit sans propriétaire visible.
+     */
+    private long takeTicket() {
+        long mine = (long) LONG.getVolatile(buf, slot + S_TICKET);
+        if (mine != NO_TICKET && (int) INT.getVolatile(buf, slot + S_ABANDONED) == 1) {
+            INT.setVolatile(buf, slot + S_ABANDONED, 0);
+            if (mine >= (long) LONG.getVolatile(buf, OFF_SERVING))
+                return mine; // si sauté entre-temps, awaitTurn le verra (serving > t)
+        }
+        for (;;) {
+            long n = (long) LONG.getVolatile(buf, OFF_NEXT_TICKET);
+            LONG.setVolatile(buf, slot + S_TICKET, n);
+            if (LONG.compareAndSet(buf, OFF_NEXT_TICKET, n, n + 1))
+                return n;
+        }
+    }
+
+    /** Timeout / interruption : le ticket reste en file, marqué abandonné (sauté par les autres). */
+    private void abandon(long t) {
+        INT.setVolatile(buf, slot + S_ABANDONED, 1);
+        LONG.compareAndSet(buf, OFF_SERVING, t, t + 1); // on était en tête : on passe la main
+    }
+
+    /** Saute le ticket servi s'il n'a plus de propriétaire vivant qui l'attend. */
+    private void skipIfOrphan(long s) {
+        if (s >= (long) LONG.getVolatile(buf, OFF_NEXT_TICKET))
+            return;
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            int o = SLOTS + i * SLOT_SIZE;
+            long p = (long) LONG.getVolatile(buf, o + S_PID);
+            if (p <= 0 || (long) LONG.getVolatile(buf, o + S_TICKET) != s)
+                continue;
+            if (!alive(p, (long) LONG.getVolatile(buf, o + S_START)))
+                reclaim(o, p);
+            else if ((int) INT.getVolatile(buf, o + S_ABANDONED) == 0)
+                return; // propriétaire vivant : c'est bien son tour
+        }
+        LONG.compareAndSet(buf, OFF_SERVING, s, s + 1);
+    }
+
+    // ---------- permis ----------
+
+    private boolean take(int k) {
+        // held d'abord : un crash entre les deux sur-rend, borné par cap à la récupération
+        INT.getAndAdd(buf, slot + S_HELD, k);
+        int a;
+        do {
+            a = (int) INT.getVolatile(buf, OFF_AVAIL);
+            if (a < k) {
+                INT.getAndAdd(buf, slot + S_HELD, -k);
+                return false;
+            }
+        } while (!INT.compareAndSet(buf, OFF_AVAIL, a, a - k));
+        return true;
+    }
+
+    /** Rend n permis, sans dépasser la capacité. */
+    private void giveBack(int n) {
+        int a;
+        do {
+            a = (int) INT.getVolatile(buf, OFF_AVAIL);
+        } while (!INT.compareAndSet(buf, OFF_AVAIL, a, Math.min(cap, a + n)));
+    }
+
+    // ---------- slots et détection des morts ----------
+
+    private int claimSlot() {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < MAX_SLOTS; i++) {
+                int o = SLOTS + i * SLOT_SIZE;
+                if (LONG.compareAndSet(buf, o + S_PID, 0L, pid)) {
+                    LONG.setVolatile(buf, o + S_START, start);
+                    return o;
+                }
+            }
+            reclaimDead(); // plein : on libère les slots des processus morts
+        }
+        throw new IllegalStateException("no free process slot");
+    }
+
+    private void reclaimDead() {
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            int o = SLOTS + i * SLOT_SIZE;
+            long p = (long) LONG.getVolatile(buf, o + S_PID);
+            if (p > 0 && !alive(p, (long) LONG.getVolatile(buf, o + S_START)))
+                reclaim(o, p);
+        }
+    }
+
+    private void reclaim(int o, long deadPid) {
+        if (LONG.compareAndSet(buf, o + S_PID, deadPid, RECLAIMING))
+            freeSlot(o);
+    }
+
+    /** Slot en RECLAIMING : rend ses permis et le remet à zéro. */
+    private void freeSlot(int o) {
+        giveBack((int) INT.getAndSet(buf, o + S_HELD, 0));
+        LONG.setVolatile(buf, o + S_TICKET, NO_TICKET); // ticket orphelin : sauté par skipIfOrphan
+        INT.setVolatile(buf, o + S_ABANDONED, 0);
+        LONG.setVolatile(buf, o + S_START, 0L);
+        LONG.setVolatile(buf, o + S_PID, 0L);
+    }
+
+    private boolean alive(long p, long startMillis) {
+        if (p == pid)
+            return true;
+        Optional<ProcessHandle> h = ProcessHandle.of(p);
+        if (h.isEmpty() || !h.get().isAlive())
+            return false;
+        if (startMillis == 0)
+            return true;
+        // pid réutilisé par un autre processus : date de démarrage différente
+        return h.get().info().startInstant().map(i -> i.toEpochMilli() == startMillis).orElse(true);
+    }
+
+    private void checkK(int k) {
+        if (closed)
+            throw new IllegalStateException("pool closed");
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+    }
+}
@@ -0,0 +1,184 @@
+package nebula.alloc;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Acquisition atomique (tout ou rien) d'un vecteur de demandes sur plusieurs
+ * pools, par ex. connexions DB + jetons CPU.
+ * <ul>
+ * <li>Ordre global : les pools sont toujours pris dans l'ordre de déclaration
+ * et rendus dans l'ordre inverse.</li>
+ * <li>Aucun permis partiel n'est gardé pendant l'attente : chaque tentative
+ * passe par {@link ResourcePool#tryAcquire(int)} et annule tout en cas
+ * d'échec.</li>
+ * <li>FIFO stricte entre les demandes du set (comme {@link ResourcePoolFifo}) :
+ * seule la tête de file retente.</li>
+ * </ul>
+ * Les libérations faites via {@link #release(int...)} réveillent la tête
+ * aussitôt ; celles faites directement sur un pool sont vues à la re-tentative
+ * périodique suivante ({@code retry}).
+ */
+public class ResourcePoolSet {
+
+    private static final long DEFAULT_RETRY_MS = 5;
+
+    private final ResourcePool[] pools;
+    private final long retryNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WaitQueue q = new WaitQueue();
+    private final ThreadLocal<WaitQueue.Node> nodes = ThreadLocal
+            .withInitial(() -> new WaitQueue.Node(lock.newCondition()));
+
+    public ResourcePoolSet(ResourcePool... pools) {
+        this(DEFAULT_RETRY_MS, TimeUnit.MILLISECONDS, pools);
+    }
+
+    public ResourcePoolSet(long retry, TimeUnit unit, ResourcePool... pools) {
+        Objects.requireNonNull(unit, "unit");
+        Objects.requireNonNull(pools, "pools");
+        if (pools.length == 0)
+            throw new IllegalArgumentException("at least one pool required");
+        if (retry <= 0)
+            throw new IllegalArgumentException("retry>0 required");
+        for (ResourcePool p : pools)
+            Objects.requireNonNull(p, "pool");
+        this.pools = pools.clone();
+        this.retryNanos = unit.toNanos(retry);
+    }
+
+    /** Nombre de pools (longueur attendue des vecteurs de demandes). */
+    public int size() {
+        return pools.length;
+    }
+
+    public ResourcePool pool(int i) {
+        return pools[i];
+    }
+
+    /** Bloquant : prend demands[i] permis sur chaque pool i, tout ou rien. */
+    public void acquire(int... demands) throws InterruptedException {
+        check(demands);
+        lock.lockInterruptibly();
+        try {
+            awaitTurn(demands, false, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Non bloquant : réussit seulement si personne n'attend et que tout est libre. */
+    public boolean tryAcquire(int... demands) {
+        check(demands);
+        lock.lock();
+        try {
+            return q.isEmpty() && tryAll(demands);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Temporisé : attend au plus timeout, sans garder de permis partiels. */
+    public boolean tryAcquire(long timeout, TimeUnit unit, int... demands) throws InterruptedException {
+        Objects.requireNonNull(unit, "unit");
+        check(demands);
+        lock.lockInterruptibly();
+        try {
+            return awaitTurn(demands, true, unit.toNanos(timeout));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Rend demands[i] permis à chaque pool i (ordre inverse), puis réveille la tête. */
+    public void release(int... demands) {
+        check(demands);
+        for (int i = pools.length - 1; i >= 0; i--) {
+            if (demands[i] > 0)
+                pools[i].release(demands[i]);
+        }
+        lock.lock();
+        try {
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------- interne (sous verrou) ----------
+
+    private boolean awaitTurn(int[] demands, boolean timed, long nanos) throws InterruptedException {
+        if (q.isEmpty() && tryAll(demands))
+            return true;
+        if (timed && nanos <= 0)
+            return false;
+        final long deadline = System.nanoTime() + nanos;
+        final WaitQueue.Node r = nodes.get();
+        q.addLast(r);
+        try {
+            for (;;) {
+                if (q.peekFirst() == r) {
+                    if (tryAll(demands))
+                        return true;
+                    // tête de file : re-tentative périodique (libérations hors set)
+                    long wait = retryNanos;
+                    if (timed) {
+                        nanos = deadline - System.nanoTime();
+                        if (nanos <= 0)
+                            return false;
+                        wait = Math.min(wait, nanos);
+                    }
+                    r.cond.awaitNanos(wait);
+                } else if (!timed) {
+                    r.cond.await(); // réveillé quand on devient tête
+                } else {
+                    nanos = deadline - System.nanoTime();
+                    if (nanos <= 0)
+                        return false;
+                    r.cond.awaitNanos(nanos);
+                }
+            }
+        } finally {
+            // succès, échéance ou interruption : on quitte la file et on passe la main
+            q.remove(r);
+            signalHead();
+        }
+    }
+
+    /** Prend tout dans l'ordre global, ou rien (annulation en ordre inverse). */
+    private boolean tryAll(int[] demands) {
+        int i = 0;
+        for (; i < pools.length; i++) {
+            if (demands[i] > 0 && !pools[i].tryAcquire(demands[i]))
+                break;
+        }
+        if (i == pools.length)
+            return true;
+        for (int j = i - 1; j >= 0; j--) {
+            if (demands[j] > 0)
+                pools[j].release(demands[j]);
+        }
+        return false;
+    }
+
+    private void signalHead() {
+        WaitQueue.Node h = q.peekFirst();
+        if (h != null)
+            h.cond.signal();
+    }
+
+    private void check(int[] demands) {
+        Objects.requireNonNull(demands, "demands");
+        if (demands.length != pools.length)
+            throw new IllegalArgumentException("one demand per pool required");
+        boolean any = false;
+        for (int i = 0; i < demands.length; i++) {
+            if (demands[i] < 0 || demands[i] > pools[i].capacity())
+                throw new IllegalArgumentException("0 ≤ demand ≤ capacity required");
+            any |= demands[i] > 0;
+        }
+        if (!any)
+            throw new IllegalArgumentException("at least one demand > 0 required");
+    }
+}
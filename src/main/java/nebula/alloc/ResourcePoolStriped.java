@@ -0,0 +1,258 @@
+package nebula.alloc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool découpé en bandes (une par cœur, puissance de 2) pour éviter un point de
+ * contention global. Chaque bande porte une part fixe de la capacité. Un thread
+ * prend d'abord dans sa bande locale et ne vole les autres bandes que si elle
+ * est à sec ; {@code release} remplit la bande locale puis déborde sur les
+ * voisines (rééquilibrage). Aucun verrou sur le chemin rapide ; l'attente
+ * (permis épuisés) passe par un verrou + condition, sans ordre FIFO.
+ * <p>
+ * Prise de k &gt; 1 : tout ou rien, bande par bande ; un échec partiel rend ce
+ * qui a été pris puis recommence tant que la somme des bandes montre assez de
+ * permis, au plus {@link #TAKE_RETRIES} fois. Sous forte concurrence de prises
+ * partielles, {@link #tryAcquire(int)} peut donc encore échouer alors que les
+ * permis existent (détenus un instant par un autre preneur) ; les attentes
+ * bloquantes et temporisées retentent après chaque release.
+ * {@link #available()} est une somme des bandes : vue agrégée approximative
+ * sous contention.
+ */
+public class ResourcePoolStriped implements ResourcePool {
+
+    /** Bande isolée sur sa propre ligne de cache (padding anti faux-partage). */
+    @SuppressWarnings("unused")
+    private static final class Stripe {
+        long p0, p1, p2, p3, p4, p5, p6;
+        volatile int avail;
+        final int share; // plafond de la bande
+        long q0, q1, q2, q3, q4, q5, q6;
+
+        Stripe(int share) {
+            this.share = share;
+            this.avail = share;
+        }
+    }
+
+    private static final VarHandle AVAIL;
+    static {
+        try {
+            AVAIL = MethodHandles.lookup().findVarHandle(Stripe.class, "avail", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final int TAKE_RETRIES = 16; // passes de prise quand la somme suffit
+
+    private final int cap;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    // chemin lent : attente quand aucune bande ne suffit
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile int waiters; // modifié sous verrou, lu sans
+
+    public ResourcePoolStriped(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ResourcePoolStriped(int capacity, int stripeCount) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        if (stripeCount <= 0)
+            throw new IllegalArgumentException("stripeCount>0 required");
+        // puissance de 2, et pas plus de bandes que de permis
+        int n = Integer.highestOneBit(Math.min(stripeCount, capacity));
+        this.cap = capacity;
+        this.stripes = new Stripe[n];
+        this.mask = n - 1;
+        for (int i = 0; i < n; i++)
+            stripes[i] = new Stripe(capacity / n + (i < capacity % n ? 1 : 0));
+    }
+
+    @Override
+    public void acquire(int k) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        if (tryTake(k))
+            return;
+        awaitTake(k, false, 0L);
+    }
+
+    @Override
+    public boolean tryAcquire(int k) {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        return tryTake(k);
+    }
+
+    @Override
+    public boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        Objects.requireNonNull(unit, "unit");
+        if (tryTake(k))
+            return true;
+        return awaitTake(k, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public void release(int k) {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        int left = deposit(home(), k);
+        if (left > 0) {
+            // toutes les bandes pleines : sur-libération ; on retire ce qu'on a déposé
+            int back = k - left;
+            for (int i = 0; back > 0 && i < stripes.length; i++)
+                back -= takeUpTo(stripes[i], back);
+            throw new IllegalStateException("avail overflow");
+        }
+        if (waiters > 0)
+            signalWaiters();
+    }
+
+    @Override
+    public int capacity() {
+        return cap;
+    }
+
+    @Override
+    public int available() {
+        int sum = 0;
+        for (Stripe s : stripes)
+            sum += s.avail;
+        return sum;
+    }
+
+    /** Nombre de bandes effectif (puissance de 2). */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    // ---------- interne ----------
+
+    /** Bande locale : dérivée de l'identifiant du thread (mélange de Fibonacci). */
+    private int home() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Tout ou rien ; on retente tant qu'une passe de lecture des bandes montre
+     * au moins k permis : l'échec n'est rendu que si les permis manquent
+     * vraiment (ou après TAKE_RETRIES passes contestées).
+     */
+    private boolean tryTake(int k) {
+        for (int round = 0; round < TAKE_RETRIES; round++) {
+            if (takeOnce(k))
+                return true;
+            if (available() < k)
+                return false;
+            Thread.onSpinWait(); // un autre preneur tenait une partie des permis
+        }
+        return false;
+    }
+
+    /** Une passe : bande locale d'abord, puis vol chez les voisines. */
+    private boolean takeOnce(int k) {
+        final int idx = home();
+        int got = 0;
+        for (int i = 0; got < k && i < stripes.length; i++)
+            got += takeUpTo(stripes[(idx + i) & mask], k - got);
+        if (got == k)
+            return true;
+        if (got > 0) {
+            // deposit déborde déjà sur toutes les bandes : un reste veut dire que
+            // toutes sont à leur part, donc qu'une sur-libération concurrente a
+            // pris la place de nos permis ; le reste est au-delà de la capacité
+            int left = deposit(idx, got);
+            if (waiters > 0)
+                signalWaiters();
+            if (left > 0)
+                throw new IllegalStateException("avail overflow");
+        }
+        return false;
+    }
+
+    private static int takeUpTo(Stripe s, int need) {
+        for (;;) {
+            int a = s.avail;
+            if (a == 0)
+                return 0;
+            int t = Math.min(a, need);
+            if (AVAIL.compareAndSet(s, a, a - t))
+                return t;
+        }
+    }
+
+    /**
+     * Dépose n permis en partant de la bande idx, chaque bande plafonnée à sa part.
+     * Renvoie le reste non déposé (0 normalement). Deux passes complètes sans
+     * aucune place libre = toutes les bandes pleines.
+     */
+    private int deposit(int idx, int n) {
+        int dry = 0;
+        while (n > 0 && dry < 2) {
+            int before = n;
+            for (int i = 0; n > 0 && i < stripes.length; i++) {
+                Stripe s = stripes[(idx + i) & mask];
+                for (;;) {
+                    int a = s.avail;
+                    int room = s.share - a;
+                    if (room <= 0)
+                        break;
+                    int t = Math.min(room, n);
+                    if (AVAIL.compareAndSet(s, a, a + t)) {
+                        n -= t;
+                        break;
+                    }
+                }
+            }
+            dry = (n == before) ? dry + 1 : 0;
+        }
+        return n;
+    }
+
+    private boolean awaitTake(int k, boolean timed, long nanos) throws InterruptedException {
+        if (timed && nanos <= 0)
+            return false;
+        lock.lockInterruptibly();
+        try {
+            waiters++; // publié avant de retenter : un release concurrent nous verra
+            try {
+                while (!tryTake(k)) {
+                    if (!timed) {
+                        released.await();
+                    } else {
+                        if (nanos <= 0)
+                            return false;
+                        nanos = released.awaitNanos(nanos);
+                    }
+                }
+                return true;
+            } finally {
+                waiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalWaiters() {
+        lock.lock();
+        try {
+            released.signalAll(); // demandes de tailles différentes : chacun retente
+        } finally {
+            lock.unlock();
+        }
+    }
+}
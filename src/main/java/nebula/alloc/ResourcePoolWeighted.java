@@ -0,0 +1,241 @@
+package nebula.alloc;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool à classes de service pondérées (deficit round-robin). Chaque classe a sa
+ * file FIFO ; à chaque tour, une classe reçoit un crédit égal à son poids (en
+ * permis) et sert ses têtes tant que le crédit le permet. Une classe de poids 3
+ * obtient ~3x plus de permis qu'une classe de poids 1 sous saturation, mais
+ * aucune classe n'est affamée. La classe qui a la main la garde tant que ses
+ * permis ne sont pas disponibles : une grosse demande n'est pas doublée
+ * indéfiniment par des petites.
+ * {@link #acquire(int)} utilise la classe 0.
+ */
+public class ResourcePoolWeighted implements ResourcePool {
+
+    private static final class ClassQueue {
+        final WaitQueue q = new WaitQueue();
+        final int quantum;
+        long deficit;
+        boolean visited; // crédit du tour courant déjà versé
+
+        ClassQueue(int quantum) {
+            this.quantum = quantum;
+        }
+    }
+
+    private final int cap;
+    private int avail;
+    private int waiting; // total des demandes en file, toutes classes
+    private int cur; // classe qui a la main
+    private final ClassQueue[] classes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ThreadLocal<WaitQueue.Node> nodes = ThreadLocal
+            .withInitial(() -> new WaitQueue.Node(lock.newCondition()));
+
+    /** weights[c] = poids de la classe c (permis servis par tour). */
+    public ResourcePoolWeighted(int capacity, int... weights) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        Objects.requireNonNull(weights, "weights");
+        if (weights.length == 0)
+            throw new IllegalArgumentException("at least one class required");
+        this.cap = capacity;
+        this.avail = capacity;
+        this.classes = new ClassQueue[weights.length];
+        for (int c = 0; c < weights.length; c++) {
+            if (weights[c] <= 0)
+                throw new IllegalArgumentException("weight>0 required");
+            classes[c] = new ClassQueue(weights[c]);
+        }
+    }
+
+    @Override
+    public void acquire(int k) throws InterruptedException {
+        acquire(0, k);
+    }
+
+    public void acquire(int cls, int k) throws InterruptedException {
+        check(cls, k);
+        lock.lockInterruptibly();
+        try {
+            awaitTurn(cls, k, false, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int k) {
+        return tryAcquire(0, k);
+    }
+
+    /** Non bloquant : seulement si aucune classe n'a de demande en file. */
+    public boolean tryAcquire(int cls, int k) {
+        check(cls, k);
+        lock.lock();
+        try {
+            if (waiting == 0 && avail >= k) {
+                avail -= k;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int k, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryAcquire(0, k, timeout, unit);
+    }
+
+    public boolean tryAcquire(int cls, int k, long timeout, TimeUnit unit) throws InterruptedException {
+        check(cls, k);
+        Objects.requireNonNull(unit, "unit");
+        lock.lockInterruptibly();
+        try {
+            return awaitTurn(cls, k, true, unit.toNanos(timeout));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(int k) {
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+        lock.lock();
+        try {
+            avail += k;
+            if (avail > cap) {
+                avail -= k;
+                throw new IllegalStateException("avail overflow");
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return cap;
+    }
+
+    @Override
+    public int available() {
+        lock.lock();
+        try {
+            return avail;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int classCount() {
+        return classes.length;
+    }
+
+    /** Demandes en attente dans la classe cls (instantané). */
+    public int queued(int cls) {
+        lock.lock();
+        try {
+            return classes[cls].q.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------- interne (sous verrou) ----------
+
+    private boolean awaitTurn(int cls, int k, boolean timed, long nanos) throws InterruptedException {
+        if (waiting == 0 && avail >= k) {
+            avail -= k;
+            return true;
+        }
+        if (timed && nanos <= 0)
+            return false;
+        final WaitQueue.Node r = nodes.get();
+        r.k = k;
+        r.granted = false;
+        classes[cls].q.addLast(r);
+        waiting++;
+        dispatch();
+        try {
+            while (!r.granted) {
+                if (!timed) {
+                    r.cond.await();
+                } else if (nanos > 0) {
+                    nanos = r.cond.awaitNanos(nanos);
+                } else {
+                    leave(cls, r);
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ie) {
+            if (r.granted) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+            leave(cls, r);
+            throw ie;
+        }
+    }
+
+    private void leave(int cls, WaitQueue.Node r) {
+        if (classes[cls].q.remove(r)) {
+            waiting--;
+            dispatch(); // on bloquait peut-être la classe qui a la main
+        }
+    }
+
+    /** Deficit round-robin avec remise directe des permis (hand-off). */
+    private void dispatch() {
+        while (waiting > 0) {
+            ClassQueue c = classes[cur];
+            WaitQueue.Node h = c.q.peekFirst();
+            if (h == null) {
+                c.deficit = 0; // classe vide : pas de crédit accumulé
+                next(c);
+                continue;
+            }
+            if (!c.visited) {
+                c.deficit += c.quantum;
+                c.visited = true;
+            }
+            if (h.k > c.deficit) {
+                next(c); // crédit insuffisant : il s'accumule pour le tour suivant
+                continue;
+            }
+            if (h.k > avail)
+                return; // la classe garde la main en attendant des permis
+            avail -= h.k;
+            c.deficit -= h.k;
+            c.q.remove(h);
+            waiting--;
+            h.granted = true;
+            h.cond.signal();
+            if (c.q.isEmpty()) {
+                c.deficit = 0;
+                next(c);
+            }
+        }
+    }
+
+    private void next(ClassQueue c) {
+        c.visited = false;
+        cur = (cur + 1) % classes.length;
+    }
+
+    private void check(int cls, int k) {
+        if (cls < 0 || cls >= classes.length)
+            throw new IllegalArgumentException("unknown class " + cls);
+        if (k <= 0 || k > cap)
+            throw new IllegalArgumentException("0 < k ≤ capacity required");
+    }
+}
@@ -0,0 +1,84 @@
+package nebula.alloc;
+
+import java.util.concurrent.locks.Condition;
+
+/**
+ * File FIFO intrusive (liste doublement chaînée) de demandes en attente.
+ * Non thread-safe : toujours manipulée sous le verrou du pool propriétaire.
+ * Les nœuds sont réutilisables : ajout, retrait en tête et annulation en O(1),
+ * sans allocation.
+ */
+final class WaitQueue {
+
+    static class Node {
+        /** Réveil ciblé : une condition par nœud, liée au verrou du pool. */
+        final Condition cond;
+        int k;
+        boolean queued;
+        boolean granted; // permis remis directement par le libérateur (hand-off)
+        boolean failed; // demande devenue impossible (capacité réduite)
+        Node prev, next;
+
+        Node(Condition cond) {
+            this.cond = cond;
+        }
+    }
+
+    private Node head, tail;
+    private int size;
+    private final PoolStats stats; // null : profondeur non suivie
+
+    WaitQueue() {
+        this(null);
+    }
+
+    WaitQueue(PoolStats stats) {
+        this.stats = stats;
+    }
+
+    Node peekFirst() {
+        return head;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void addLast(Node n) {
+        n.prev = tail;
+        n.next = null;
+        if (tail == null)
+            head = n;
+        else
+            tail.next = n;
+        tail = n;
+        n.queued = true;
+        size++;
+        if (stats != null)
+            stats.queueDepth(size);
+    }
+
+    /** Retire n de la file s'il y est encore (O(1)). */
+    boolean remove(Node n) {
+        if (!n.queued)
+            return false;
+        if (n.prev == null)
+            head = n.next;
+        else
+            n.prev.next = n.next;
+        if (n.next == null)
+            tail = n.prev;
+        else
+            n.next.prev = n.prev;
+        n.prev = n.next = null;
+        n.queued = false;
+        size--;
+        if (stats != null)
+            stats.queueDepth(size);
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+package nebula.app;
+
+import nebula.core.Metrics;
+import nebula.core.Naming;
+import nebula.queue.EventQueue;
+import nebula.queue.EventQueueMonitor;
+import nebula.queue.EventQueueMpmc;
+import nebula.queue.EventQueueSCC;
+import nebula.queue.EventQueueSpsc;
+import nebula.queue.EventQueueTwoLock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Comparaison de débit (éléments transférés par seconde) entre les
+ * implémentations de {@link EventQueue}. Usage : {@code ./gradlew runBenchQueues}.
+ * Mesure grossière (pas de JMH), même protocole que {@link BenchResourcePools}.
+ */
+public class BenchEventQueues {
+
+    static final long WARMUP_MS = 300;
+    static final long MEASURE_MS = 1000;
+    static final int CAPACITY = 1024;
+
+    private static final Object ITEM = new Object();
+    private static final Object POISON = new Object(); // fin de mesure pour un consommateur
+
+    public static void main(String[] args) throws InterruptedException {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = { 1, 2, Math.max(4, cpus) };
+
+        Map<String, IntFunction<EventQueue<Object>>> queues = new LinkedHashMap<>();
+        queues.put("monitor", EventQueueMonitor::new);
+        queues.put("scc", EventQueueSCC::new);
+        queues.put("twolock", EventQueueTwoLock::new);
+        queues.put("mpmc", EventQueueMpmc::new);
+
+        System.out.printf("%-10s %10s %10s %14s%n", "queue", "producers", "consumers", "items/s");
+        // SPSC : seulement 1 producteur / 1 consommateur
+        long spsc = run(new EventQueueSpsc<>(CAPACITY), 1, 1);
+        System.out.printf("%-10s %10d %10d %,14d%n", "spsc", 1, 1, spsc);
+        // passage à l'échelle : n producteurs / n consommateurs
+        for (int n : threadCounts) {
+            for (var e : queues.entrySet()) {
+                long itemsPerSec = run(e.getValue().apply(CAPACITY), n, n);
+                System.out.printf("%-10s %10d %10d %,14d%n", e.getKey(), n, n, itemsPerSec);
+            }
+        }
+    }
+
+    /** Débit de consommation avec producers producteurs et consumers consommateurs. */
+    static long run(EventQueue<Object> q, int producers, int consumers) throws InterruptedException {
+        Metrics items = new Metrics();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService exec = Executors.newFixedThreadPool(producers + consumers,
+                Naming.prefixedFactory("bench", true));
+
+        AtomicInteger running = new AtomicInteger(producers);
+        for (int p = 0; p < producers; p++) {
+            exec.submit(() -> {
+                start.await();
+                while (!stop.get())
+                    q.put(ITEM);
+                // le dernier producteur débloque les consommateurs (reste SPSC-compatible)
+                if (running.decrementAndGet() == 0) {
+                    for (int c = 0; c < consumers; c++)
+                        q.put(POISON);
+                }
+                return null;
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            exec.submit(() -> {
+                start.await();
+                long local = 0;
+                while (q.take() != POISON) {
+                    if (++local == 1024) {
+                        items.mark(local);
+                        local = 0;
+                    }
+                }
+                if (local > 0)
+                    items.mark(local);
+                return null;
+            });
+        }
+
+        start.countDown();
+        Thread.sleep(WARMUP_MS);
+        items.snapshotAndReset();
+        Thread.sleep(MEASURE_MS);
+        long n = items.snapshot();
+        stop.set(true);
+
+        exec.shutdown();
+        if (!exec.awaitTermination(2, TimeUnit.SECONDS))
+            exec.shutdownNow();
+        return n * 1000 / MEASURE_MS;
+    }
+}
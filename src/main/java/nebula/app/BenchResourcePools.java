@@ -0,0 +1,89 @@
+package nebula.app;
+
+import nebula.alloc.ResourcePool;
+import nebula.alloc.ResourcePoolDirect;
+import nebula.alloc.ResourcePoolFifo;
+import nebula.alloc.ResourcePoolLockFree;
+import nebula.alloc.ResourcePoolStriped;
+import nebula.core.Metrics;
+import nebula.core.Naming;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Comparaison de débit (acquire/release par seconde) entre les implémentations
+ * de {@link ResourcePool}. Usage : {@code ./gradlew runBenchPools}.
+ * Mesure grossière (pas de JMH) : suffisante pour comparer des ordres de
+ * grandeur.
+ */
+public class BenchResourcePools {
+
+    static final long WARMUP_MS = 300;
+    static final long MEASURE_MS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = { 1, 2, Math.max(4, cpus) };
+
+        Map<String, IntFunction<ResourcePool>> pools = new LinkedHashMap<>();
+        pools.put("direct", ResourcePoolDirect::new);
+        pools.put("fifo", ResourcePoolFifo::new);
+        pools.put("lockfree", ResourcePoolLockFree::new);
+        pools.put("striped", ResourcePoolStriped::new);
+
+        System.out.printf("%-10s %8s %8s %14s%n", "pool", "threads", "cap", "ops/s");
+        for (int threads : threadCounts) {
+            // cap=threads : cas non contendu (chemin rapide) ; cap=1 : saturé
+            for (int cap : threads == 1 ? new int[] { 1 } : new int[] { threads, 1 }) {
+                for (var e : pools.entrySet()) {
+                    long opsPerSec = run(e.getValue().apply(cap), threads);
+                    System.out.printf("%-10s %8d %8d %,14d%n", e.getKey(), threads, cap, opsPerSec);
+                }
+            }
+        }
+    }
+
+    static long run(ResourcePool pool, int threads) throws InterruptedException {
+        Metrics ops = new Metrics();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService exec = Executors.newFixedThreadPool(threads, Naming.prefixedFactory("bench", true));
+
+        for (int t = 0; t < threads; t++) {
+            exec.submit(() -> {
+                start.await();
+                long local = 0;
+                while (!stop.get()) {
+                    pool.acquire(1);
+                    pool.release(1);
+                    if (++local == 1024) {
+                        ops.mark(local);
+                        local = 0;
+                    }
+                }
+                if (local > 0)
+                    ops.mark(local);
+                return null;
+            });
+        }
+
+        start.countDown();
+        Thread.sleep(WARMUP_MS);
+        ops.snapshotAndReset();
+        Thread.sleep(MEASURE_MS);
+        long n = ops.snapshot();
+        stop.set(true);
+
+        exec.shutdown();
+        if (!exec.awaitTermination(2, TimeUnit.SECONDS))
+            exec.shutdownNow();
+        return n * 1000 / MEASURE_MS;
+    }
+}
@@ -0,0 +1,88 @@
+package nebula.app;
+
+import nebula.core.Histogram;
+import nebula.queue.EventQueueSpsc;
+import nebula.queue.WaitStrategies;
+import nebula.queue.WaitStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Latence de réveil du consommateur contre CPU consommé, pour chaque
+ * {@link WaitStrategy}. Un producteur publie un horodatage toutes les
+ * {@link #PERIOD_US} µs (file souvent vide : c'est le cas où la stratégie
+ * compte) ; le consommateur mesure put → take. Usage :
+ * {@code ./gradlew runBenchWait}. Mesure grossière (pas de JMH).
+ */
+public class BenchWaitStrategies {
+
+    static final long PERIOD_US = 100;
+    static final long WARMUP_MS = 300;
+    static final long MEASURE_MS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Supplier<WaitStrategy>> strategies = new LinkedHashMap<>();
+        strategies.put("busySpin", WaitStrategies::busySpin);
+        strategies.put("spinYield", WaitStrategies::spinThenYield);
+        strategies.put("spinPark", WaitStrategies::spinThenPark);
+        strategies.put("blocking", WaitStrategies::blocking);
+
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "strategy", "p50(us)", "p99(us)", "max(us)", "consumerCPU");
+        for (var e : strategies.entrySet()) {
+            Result r = run(e.getValue().get());
+            System.out.printf("%-10s %10d %10d %10d %11d%%%n", e.getKey(),
+                    TimeUnit.NANOSECONDS.toMicros(r.latency.percentile(50)),
+                    TimeUnit.NANOSECONDS.toMicros(r.latency.percentile(99)),
+                    TimeUnit.NANOSECONDS.toMicros(r.latency.max()),
+                    r.cpuPercent);
+        }
+    }
+
+    record Result(Histogram latency, long cpuPercent) {
+    }
+
+    static Result run(WaitStrategy strategy) throws InterruptedException {
+        EventQueueSpsc<Long> q = new EventQueueSpsc<>(1024, strategy);
+        Histogram[] latency = { new Histogram() };
+        final long stop = Long.MIN_VALUE; // horodatage sentinelle
+
+        Thread consumer = new Thread(() -> {
+            try {
+                for (long sent; (sent = q.take()) != stop;)
+                    latency[0].record(System.nanoTime() - sent);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "bench-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long period = TimeUnit.MICROSECONDS.toNanos(PERIOD_US);
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MS + MEASURE_MS);
+        long measureFrom = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MS);
+        long cpu0 = -1, wall0 = 0;
+        for (long next = System.nanoTime(); next < end; next += period) {
+            long now;
+            while ((now = System.nanoTime()) < next)
+                LockSupport.parkNanos(next - now);
+            if (cpu0 < 0 && now >= measureFrom) {
+                latency[0] = new Histogram(); // fin de l'échauffement
+                cpu0 = mx.getThreadCpuTime(consumer.threadId());
+                wall0 = now;
+            }
+            q.put(System.nanoTime());
+        }
+        long cpu = mx.getThreadCpuTime(consumer.threadId()) - cpu0;
+        long wall = System.nanoTime() - wall0;
+        q.put(stop);
+        consumer.join(1000);
+        return new Result(latency[0], cpu * 100 / Math.max(1, wall));
+    }
+}
@@ -0,0 +1,42 @@
+package nebula.app;
+
+import nebula.pipeline.Pipeline;
+import nebula.pipeline.Stage;
+
+/**
+ * Pipeline parse → enrich (lent) → print : la contre-pression remonte jusqu'au
+ * producteur, le résumé désigne enrich comme goulot, puis on l'agrandit.
+ */
+public class DemoPipeline {
+    public static void main(String[] args) throws InterruptedException {
+        Stage<String, Integer> parse = new Stage<>("parse", 1, 4, Integer::parseInt);
+        Stage<Integer, Integer> enrich = new Stage<>("enrich", 1, 4, x -> {
+            sleep(40); // étape lente
+            return x * 10;
+        });
+        parse.then(enrich).then(new Stage<Integer, Void>("print", 1, 4, x -> {
+            System.out.println(Thread.currentThread().getName() + " -> " + x);
+            return null;
+        }));
+
+        try (Pipeline<String> p = new Pipeline<>(parse)) {
+            for (int i = 0; i < 12; i++)
+                p.put(Integer.toString(i)); // bloque quand enrich ne suit plus
+            System.out.print(p.summary());
+            System.out.println("bottleneck = " + p.bottleneck().name() + " : resize(4)");
+
+            enrich.resize(4);
+            for (int i = 12; i < 24; i++)
+                p.put(Integer.toString(i));
+            System.out.print(p.summary());
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -38,6 +38,16 @@ public final class Demos {
             }
         });
 
+        // Démo Pipeline (étapes SEDA)
+        DEMOS.put("pipeline", () -> {
+            System.out.println("\n=== DEMO: pipeline ===");
+            try {
+                DemoPipeline.main(new String[0]); // close() attend la fin des étapes
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
         // Démo Readers–Writers équitable
         DEMOS.put("rw", () -> {
             System.out.println("\n=== DEMO: rw ===");
@@ -84,6 +94,6 @@ public final class Demos {
 
     private static void usage() {
         System.out.println("Usage: run --args=\"<demo>\"");
-        System.out.println("  <demo> ∈ { fifo | parking | queue | rw | direct | all }");
+        System.out.println("  <demo> ∈ { fifo | parking | queue | pipeline | rw | direct | all }");
     }
 }
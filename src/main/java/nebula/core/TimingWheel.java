@@ -0,0 +1,166 @@
+package nebula.core;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roue temporelle hiérarchique (4 niveaux x 64 cases) : programmation et
+ * annulation en O(1), sans thread par échéance. La roue est passive : un seul
+ * thread appelle {@link #advance(long)} périodiquement (ex. toutes les
+ * {@code tick}) et les tâches échues s'exécutent sur ce thread.
+ * Horizon direct : 64^4 ticks ; au-delà, l'échéance est re-placée à chaque
+ * tour du dernier niveau.
+ */
+public final class TimingWheel {
+
+    private static final int BITS = 6;
+    private static final int SIZE = 1 << BITS; // 64 cases par niveau
+    private static final int MASK = SIZE - 1;
+    private static final int LEVELS = 4;
+
+    /** Échéance programmée ; annulable tant qu'elle n'a pas expiré. */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline; // en ticks
+        private Timeout prev, next;
+        private int level = -1, slot; // level < 0 : hors de la roue
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long tickNanos;
+    private final long origin = System.nanoTime();
+    private final Timeout[][] wheels = new Timeout[LEVELS][SIZE];
+    private long currentTick; // dernier tick traité
+    private int pending;
+
+    public TimingWheel(long tick, TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit");
+        this.tickNanos = unit.toNanos(tick);
+        if (tickNanos <= 0)
+            throw new IllegalArgumentException("tick>0 required");
+    }
+
+    /** Programme task après delay (arrondi au tick supérieur). */
+    public synchronized Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+        Objects.requireNonNull(unit, "unit");
+        long at = System.nanoTime() - origin + Math.max(0, unit.toNanos(delay));
+        Timeout t = new Timeout(task, (at + tickNanos - 1) / tickNanos);
+        place(t);
+        pending++;
+        return t;
+    }
+
+    /** Annule t s'il est encore dans la roue (O(1)). */
+    public synchronized boolean cancel(Timeout t) {
+        if (t == null || t.level < 0)
+            return false;
+        unlink(t);
+        pending--;
+        return true;
+    }
+
+    /**
+     * Traite les ticks écoulés jusqu'à now (System.nanoTime()) et exécute les
+     * tâches échues hors verrou. Renvoie le nombre de tâches exécutées.
+     */
+    public int advance(long now) {
+        Timeout expired = null;
+        synchronized (this) {
+            final long target = (now - origin) / tickNanos;
+            while (currentTick < target) {
+                long t = ++currentTick;
+                // niveaux hauts d'abord : leurs entrées redescendent vers les niveaux bas
+                for (int level = LEVELS - 1; level >= 1; level--) {
+                    if ((t & ((1L << (BITS * level)) - 1)) == 0)
+                        cascade(level, (int) (t >>> (BITS * level)) & MASK);
+                }
+                Timeout e = detach(0, (int) t & MASK);
+                while (e != null) {
+                    Timeout n = e.next;
+                    if (e.deadline <= t) {
+                        e.next = expired; // chaîne des échues, réutilise next
+                        expired = e;
+                        pending--;
+                    } else {
+                        place(e);
+                    }
+                    e = n;
+                }
+            }
+        }
+        int n = 0;
+        for (Timeout e = expired; e != null; e = e.next, n++) {
+            try {
+                e.task.run();
+            } catch (RuntimeException ex) {
+                // une tâche fautive ne doit pas bloquer les autres échéances
+                Thread th = Thread.currentThread();
+                th.getUncaughtExceptionHandler().uncaughtException(th, ex);
+            }
+        }
+        return n;
+    }
+
+    /** Échéances encore dans la roue. */
+    public synchronized int pending() {
+        return pending;
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    // ---------- interne (sous verrou) ----------
+
+    private void place(Timeout t) {
+        long at = Math.max(t.deadline, currentTick + 1); // en retard : tick suivant
+        long delta = at - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1))))
+            level++;
+        int slot = (int) (at >>> (BITS * level)) & MASK;
+        t.level = level;
+        t.slot = slot;
+        t.prev = null;
+        t.next = wheels[level][slot];
+        if (t.next != null)
+            t.next.prev = t;
+        wheels[level][slot] = t;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev == null)
+            wheels[t.level][t.slot] = t.next;
+        else
+            t.prev.next = t.next;
+        if (t.next != null)
+            t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.level = -1;
+    }
+
+    /** Vide une case et renvoie sa liste (chaînée par next, entrées hors roue). */
+    private Timeout detach(int level, int slot) {
+        Timeout head = wheels[level][slot];
+        wheels[level][slot] = null;
+        for (Timeout e = head; e != null; e = e.next) {
+            e.level = -1;
+            e.prev = null;
+        }
+        return head;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout e = detach(level, slot);
+        while (e != null) {
+            Timeout n = e.next;
+            place(e);
+            e = n;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package nebula.pipeline;
+
+import nebula.core.Naming;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline à étapes (SEDA) : une chaîne de {@link Stage} reliées par
+ * {@link Stage#then}, chacune avec sa file bornée et ses workers. Le
+ * constructeur démarre toutes les étapes ; {@link #put} bloque quand la
+ * première file est pleine, donc quand l'aval ne suit pas.
+ * <pre>{@code
+ * Stage<String, Integer> parse = new Stage<>("parse", 2, 64, Integer::parseInt);
+ * parse.then(new Stage<Integer, Void>("store", 4, 64, x -> { store(x); return null; }));
+ * try (Pipeline<String> p = new Pipeline<>(parse)) {
+ *     p.put("42");
+ * }
+ * }</pre>
+ * {@link #bottleneck()} désigne l'étape la plus occupée, à agrandir avec
+ * {@link Stage#resize}.
+ * <p>
+ * {@link #close()} attend la fin des put en cours avant de déposer les
+ * pilules : aucun événement accepté ne se retrouve derrière elles.
+ */
+public final class Pipeline<I> implements AutoCloseable {
+
+    private final Stage<I, ?> head;
+    private final List<Stage<?, ?>> stages;
+    private final AtomicInteger inFlight = new AtomicInteger(); // puts entre la vérification de closed et le dépôt
+    private volatile boolean closed;
+
+    public Pipeline(Stage<I, ?> head) {
+        this.head = Objects.requireNonNull(head, "head");
+        List<Stage<?, ?>> chain = new ArrayList<>();
+        for (Stage<?, ?> s = head; s != null; s = s.next()) {
+            if (chain.contains(s))
+                throw new IllegalArgumentException("cycle at stage " + s.name());
+            chain.add(s);
+        }
+        this.stages = Collections.unmodifiableList(chain);
+        for (Stage<?, ?> s : stages)
+            s.start(Naming.prefixedFactory("stage-" + s.name(), true));
+    }
+
+    /** Bloque tant que la première étape est pleine (contre-pression). */
+    public void put(I item) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        inFlight.incrementAndGet();
+        try {
+            ensureOpen();
+            head.accept(item, null);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** Non bloquant : false si la première étape est pleine. */
+    public boolean offer(I item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        inFlight.incrementAndGet();
+        try {
+            ensureOpen();
+            return head.tryAccept(item);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** Étapes, de l'entrée à la sortie. */
+    public List<Stage<?, ?>> stages() {
+        return stages;
+    }
+
+    /** Étape au taux d'occupation le plus élevé (à égalité, la plus en amont). */
+    public Stage<?, ?> bottleneck() {
+        Stage<?, ?> best = stages.get(0);
+        for (Stage<?, ?> s : stages)
+            if (s.stats().utilization() > best.stats().utilization())
+                best = s;
+        return best;
+    }
+
+    /** Une ligne par étape. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage<?, ?> s : stages)
+            sb.append(s.stats().summary()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Refuse les nouveaux événements puis arrête les étapes dans l'ordre :
+     * chacune termine sa file (et alimente la suivante) avant de s'arrêter.
+     * Interrompu pendant l'attente : rend la main, drapeau d'interruption
+     * restauré ; les étapes pas encore arrêtées continuent de tourner.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            // inFlight lu après closed : un put non compté ici verra closed
+            while (inFlight.get() != 0)
+                Thread.sleep(1); // les étapes tournent encore : un put bloqué finit par passer
+            for (Stage<?, ?> s : stages)
+                s.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("pipeline closed");
+    }
+}
@@ -0,0 +1,200 @@
+package nebula.pipeline;
+
+import nebula.queue.EventQueue;
+import nebula.queue.EventQueueSCC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Étape d'un {@link Pipeline} : une file d'entrée bornée et {@code parallelism}
+ * workers qui appliquent {@code fn} et transmettent le résultat à l'étape
+ * suivante ({@link #then}). Un résultat null est abandonné (filtre) ; une
+ * exception est comptée et l'événement abandonné.
+ * <p>
+ * Contre-pression : un worker bloque sur la file pleine de l'étape suivante, sa
+ * propre file se remplit, et ainsi de suite jusqu'à {@link Pipeline#put}.
+ * <p>
+ * Arrêt par pilules : une pilule par worker, placée derrière les événements en
+ * file (file FIFO requise) ; {@link #resize} en sert aussi pour retirer des
+ * workers. Les pilules promises sont comptées sous le moniteur : l'arrêt n'en
+ * ajoute que pour les workers qui n'en attendent pas déjà une, et refuse les
+ * resize suivants.
+ */
+public final class Stage<I, O> {
+
+    static final Object POISON = new Object(); // fin d'un worker
+
+    private final String name;
+    private final Function<? super I, ? extends O> fn;
+    private final EventQueue<Object> input;
+    private final StageStats stats = new StageStats(this);
+    private Stage<? super O, ?> next; // fixé avant le démarrage
+
+    // sous this
+    private final List<Thread> workers = new ArrayList<>();
+    private ThreadFactory factory;
+    private int pills; // pilules promises pas encore prises par un worker
+    private boolean stopping;
+    private volatile int parallelism;
+
+    /** File d'entrée {@link EventQueueSCC}. */
+    public Stage(String name, int parallelism, int capacity, Function<? super I, ? extends O> fn) {
+        this(name, parallelism, capacity, EventQueueSCC::new, fn);
+    }
+
+    /** queueFactory : construit la file d'entrée (FIFO) à partir de sa capacité. */
+    public Stage(String name, int parallelism, int capacity, IntFunction<? extends EventQueue<Object>> queueFactory,
+            Function<? super I, ? extends O> fn) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism>0 required");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        this.name = Objects.requireNonNull(name, "name");
+        this.fn = Objects.requireNonNull(fn, "fn");
+        this.input = Objects.requireNonNull(queueFactory.apply(capacity), "queue");
+        this.parallelism = parallelism;
+    }
+
+    /** Relie la sortie de cette étape à next ; renvoie next pour enchaîner. */
+    public synchronized <R> Stage<O, R> then(Stage<O, R> next) {
+        if (factory != null)
+            throw new IllegalStateException("stage already started");
+        if (this.next != null)
+            throw new IllegalStateException("stage already connected");
+        this.next = Objects.requireNonNull(next, "next");
+        return next;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    public StageStats stats() {
+        return stats;
+    }
+
+    /**
+     * Change le nombre de workers à chaud. En baisse, les workers en trop
+     * s'arrêtent après les événements déjà en file. Refusé une fois l'arrêt
+     * commencé.
+     */
+    public void resize(int parallelism) throws InterruptedException {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism>0 required");
+        int poison = 0;
+        synchronized (this) {
+            if (stopping)
+                throw new IllegalStateException("stage stopping");
+            int remove = this.parallelism - parallelism;
+            this.parallelism = parallelism;
+            if (factory != null) {
+                for (int i = remove; i < 0; i++)
+                    spawn();
+                poison = Math.max(remove, 0);
+                pills += poison; // promises ici : stop() ne les double pas
+            }
+        }
+        for (int i = 0; i < poison; i++)
+            input.put(POISON); // hors moniteur : peut bloquer sur file pleine
+    }
+
+    // ---------- utilisé par Pipeline ----------
+
+    Stage<? super O, ?> next() {
+        return next;
+    }
+
+    int queueDepth() {
+        return input.size();
+    }
+
+    synchronized void start(ThreadFactory factory) {
+        if (this.factory != null)
+            throw new IllegalStateException("stage already started");
+        this.factory = factory;
+        stats.started();
+        for (int i = 0; i < parallelism; i++)
+            spawn();
+    }
+
+    /** Dépôt dans la file d'entrée ; from : étape amont (null pour l'entrée du pipeline). */
+    void accept(Object item, StageStats from) throws InterruptedException {
+        if (!input.offer(item)) {
+            if (from != null)
+                from.blocked();
+            input.put(item);
+        }
+    }
+
+    /** Non bloquant en entrée du pipeline. */
+    boolean tryAccept(Object item) {
+        return input.offer(item);
+    }
+
+    /** Laisse la file se vider, puis arrête tous les workers. */
+    void stop() throws InterruptedException {
+        List<Thread> running;
+        int poison;
+        synchronized (this) {
+            stopping = true; // plus de resize : la liste ne grossit plus
+            running = new ArrayList<>(workers);
+            poison = Math.max(workers.size() - pills, 0);
+            pills += poison;
+        }
+        for (int i = 0; i < poison; i++)
+            input.put(POISON);
+        for (Thread t : running)
+            t.join();
+    }
+
+    // ---------- interne ----------
+
+    private void spawn() {
+        Thread t = factory.newThread(this::work);
+        workers.add(t);
+        t.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void work() {
+        boolean poisoned = false;
+        try {
+            for (;;) {
+                Object x = input.take();
+                if (x == POISON) {
+                    poisoned = true;
+                    return;
+                }
+                O out;
+                long t0 = System.nanoTime();
+                try {
+                    out = fn.apply((I) x);
+                } catch (RuntimeException e) {
+                    stats.failed();
+                    continue;
+                } finally {
+                    stats.served(System.nanoTime() - t0);
+                }
+                if (out != null && next != null)
+                    next.accept(out, stats);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // thread de l'étape : on s'arrête
+        } finally {
+            synchronized (this) {
+                workers.remove(Thread.currentThread());
+                if (poisoned)
+                    pills--;
+            }
+        }
+    }
+}
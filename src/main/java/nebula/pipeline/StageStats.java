@@ -0,0 +1,104 @@
+package nebula.pipeline;
+
+import nebula.core.Histogram;
+import nebula.core.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures d'une étape, lisibles pendant que le pipeline tourne : débit,
+ * profondeur de la file d'entrée, temps de service (appel de la fonction, en
+ * ns), échecs et contre-pression subie en sortie.
+ * <p>
+ * {@link #utilization()} : part du temps où les workers sont occupés depuis le
+ * démarrage ; proche de 1 avec une file d'entrée pleine = goulot d'étranglement.
+ */
+public final class StageStats {
+
+    private final Stage<?, ?> stage;
+    private final Metrics processed = new Metrics();
+    private final Metrics failures = new Metrics();
+    private final Metrics blockedPuts = new Metrics();
+    private final Histogram serviceTime = new Histogram();
+    private final LongAdder busyNanos = new LongAdder();
+    private volatile long startNanos;
+
+    StageStats(Stage<?, ?> stage) {
+        this.stage = stage;
+    }
+
+    /** Événements traités (y compris en échec). */
+    public long processed() {
+        return processed.snapshot();
+    }
+
+    /** Débit moyen depuis le démarrage, en événements/s. */
+    public double throughput() {
+        long elapsed = elapsedNanos();
+        return elapsed == 0 ? 0.0 : processed() * 1e9 / elapsed;
+    }
+
+    /** Exceptions levées par la fonction de l'étape (événement abandonné). */
+    public long failures() {
+        return failures.snapshot();
+    }
+
+    /** Sorties ayant trouvé pleine la file de l'étape suivante. */
+    public long blockedPuts() {
+        return blockedPuts.snapshot();
+    }
+
+    public int queueDepth() {
+        return stage.queueDepth();
+    }
+
+    public Histogram serviceTime() {
+        return serviceTime;
+    }
+
+    /** Temps occupé / (temps écoulé × parallélisme courant), dans [0, 1]. */
+    public double utilization() {
+        long elapsed = elapsedNanos();
+        if (elapsed == 0)
+            return 0.0;
+        return Math.min(1.0, (double) busyNanos.sum() / ((double) elapsed * stage.parallelism()));
+    }
+
+    /** Une ligne lisible. */
+    public String summary() {
+        return String.format("%s x%d depth=%d processed=%d (%.0f/s) failures=%d blocked=%d "
+                + "service p50=%dus p99=%dus util=%.0f%%",
+                stage.name(), stage.parallelism(), queueDepth(), processed(), throughput(), failures(),
+                blockedPuts(), us(50), us(99), utilization() * 100);
+    }
+
+    // ---------- alimentation par l'étape ----------
+
+    void started() {
+        startNanos = System.nanoTime();
+    }
+
+    void served(long nanos) {
+        serviceTime.record(nanos);
+        busyNanos.add(nanos);
+        processed.mark();
+    }
+
+    void failed() {
+        failures.mark();
+    }
+
+    void blocked() {
+        blockedPuts.mark();
+    }
+
+    private long elapsedNanos() {
+        long t0 = startNanos;
+        return t0 == 0 ? 0 : Math.max(0, System.nanoTime() - t0);
+    }
+
+    private long us(double q) {
+        return TimeUnit.NANOSECONDS.toMicros(serviceTime.percentile(q));
+    }
+}
@@ -0,0 +1,160 @@
+package nebula.queue;
+
+import nebula.core.Histogram;
+import nebula.core.Metrics;
+import nebula.core.Naming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Consommateur par lots d'une {@link EventQueue} : un thread accumule les
+ * éléments jusqu'à la taille cible ou jusqu'à l'échéance {@code linger}, puis
+ * appelle {@code handler} avec le lot (ordre de la file conservé).
+ * <p>
+ * Taille cible adaptative, entre minBatch et maxBatch : doublée quand la file
+ * reste plus profonde que la cible après un lot, divisée par deux quand elle
+ * est presque vide. Charge légère : petits lots, presque sans attente
+ * (minBatch = 1 : aucun linger) ; charge forte : gros lots, moins d'appels.
+ * <p>
+ * Une exception du handler est comptée et le lot abandonné. {@link #close()}
+ * livre ce qui reste en file puis arrête le thread.
+ */
+public class BatchingConsumer<T> implements AutoCloseable {
+
+    static final long CLOSE_CHECK_MS = 50; // réactivité à close()
+
+    private static final int DEFAULT_MAX_BATCH = 256;
+    private static final long DEFAULT_LINGER_US = 1000;
+
+    private final EventQueue<T> queue;
+    private final Consumer<? super List<T>> handler;
+    private final int minBatch, maxBatch;
+    private final long lingerNanos;
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile int target; // écrit par le worker seulement
+
+    private final Metrics batches = new Metrics();
+    private final Metrics items = new Metrics();
+    private final Metrics failures = new Metrics();
+    private final Histogram batchSize = new Histogram();
+
+    /** Lots de 1 à 256 éléments, linger 1 ms. */
+    public BatchingConsumer(EventQueue<T> queue, Consumer<? super List<T>> handler) {
+        this(queue, handler, 1, DEFAULT_MAX_BATCH, DEFAULT_LINGER_US, TimeUnit.MICROSECONDS);
+    }
+
+    /** linger : attente maximale pour compléter un lot commencé. */
+    public BatchingConsumer(EventQueue<T> queue, Consumer<? super List<T>> handler, int minBatch, int maxBatch,
+            long linger, TimeUnit unit) {
+        if (minBatch <= 0 || maxBatch < minBatch)
+            throw new IllegalArgumentException("0 < minBatch ≤ maxBatch required");
+        if (linger < 0)
+            throw new IllegalArgumentException("linger>=0 required");
+        this.queue = Objects.requireNonNull(queue, "queue");
+        this.handler = Objects.requireNonNull(handler, "handler");
+        this.minBatch = minBatch;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = unit.toNanos(linger);
+        this.target = minBatch;
+        this.worker = Naming.prefixedFactory("batcher", true).newThread(this::run);
+        worker.start();
+    }
+
+    /** Taille de lot visée en ce moment. */
+    public int currentBatchSize() {
+        return target;
+    }
+
+    public long batches() {
+        return batches.snapshot();
+    }
+
+    /** Éléments livrés au handler (y compris dans des lots en échec). */
+    public long items() {
+        return items.snapshot();
+    }
+
+    /** Lots dont le handler a levé une exception. */
+    public long failures() {
+        return failures.snapshot();
+    }
+
+    /** Distribution des tailles de lots livrés. */
+    public Histogram batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Livre ce qui reste en file, puis arrête le thread. Interrompu pendant
+     * l'attente : rend la main, drapeau d'interruption restauré ; le thread
+     * finit de livrer seul.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- interne ----------
+
+    private void run() {
+        try {
+            while (!closed) {
+                List<T> batch = queue.takeBatch(target, CLOSE_CHECK_MS, TimeUnit.MILLISECONDS);
+                if (batch.isEmpty())
+                    continue;
+                linger(batch);
+                deliver(batch);
+                adapt();
+            }
+            List<T> rest = new ArrayList<>();
+            while (queue.drainTo(rest, maxBatch) > 0) {
+                deliver(rest);
+                rest = new ArrayList<>();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // thread du consommateur : on s'arrête
+        }
+    }
+
+    /** Complète le lot jusqu'à la cible, au plus lingerNanos après son premier élément. */
+    private void linger(List<T> batch) throws InterruptedException {
+        final long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < target) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0 || closed)
+                return;
+            batch.addAll(queue.takeBatch(target - batch.size(), left, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private void deliver(List<T> batch) {
+        batches.mark();
+        items.mark(batch.size());
+        batchSize.record(batch.size());
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            failures.mark();
+        }
+    }
+
+    /** File encore profonde : lots plus gros ; presque vide : plus petits. */
+    private void adapt() {
+        int depth = queue.size();
+        int t = target;
+        if (depth >= t)
+            target = Math.min(maxBatch, t << 1);
+        else if (depth < t >> 2)
+            target = Math.max(minBatch, t >> 1);
+    }
+}
@@ -0,0 +1,26 @@
+package nebula.queue;
+
+import java.nio.charset.StandardCharsets;
+
+/** Sérialisation des événements pour les files persistantes ({@link EventQueueJournal}). */
+public interface EventCodec<T> {
+
+    byte[] encode(T event);
+
+    T decode(byte[] bytes);
+
+    /** Chaînes en UTF-8. */
+    static EventCodec<String> utf8() {
+        return new EventCodec<>() {
+            @Override
+            public byte[] encode(String event) {
+                return event.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
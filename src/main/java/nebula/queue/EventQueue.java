@@ -1,5 +1,9 @@
 package nebula.queue;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 public interface EventQueue<T> {
     void put(T item) throws InterruptedException;
 
@@ -7,4 +11,34 @@ public interface EventQueue<T> {
 
     int size();
 
+    /** Non bloquant : false si la file est pleine. */
+    boolean offer(T item);
+
+    /** Attend au plus timeout qu'une place se libère ; false à l'échéance. */
+    boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /** Non bloquant : null si la file est vide. */
+    T poll();
+
+    /** Attend au plus timeout un élément ; null à l'échéance. */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Ajoute tous les éléments, dans l'ordre, en bloquant tant qu'il n'y a pas
+     * de place. Interrompu en cours : les éléments déjà ajoutés restent.
+     */
+    default void putAll(Collection<? extends T> items) throws InterruptedException {
+        for (T item : items)
+            put(item);
+    }
+
+    /** Non bloquant : transfère au plus max éléments dans sink ; renvoie leur nombre. */
+    int drainTo(Collection<? super T> sink, int max);
+
+    /**
+     * Attend au moins un élément (au plus timeout), puis prend tout ce qui est
+     * disponible jusqu'à max. Liste vide à l'échéance.
+     */
+    List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException;
+
 }
@@ -0,0 +1,514 @@
+package nebula.queue;
+
+import nebula.core.Metrics;
+import nebula.core.Naming;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * File persistante : chaque put ajoute l'événement sérialisé ({@link EventCodec})
+ * à un journal de segments mappés en mémoire ; la position du consommateur vit
+ * dans un petit fichier mappé. Au redémarrage, les événements non consommés
+ * sont retrouvés.
+ * <p>
+ * Format d'un enregistrement : {@code [len+1:int][crc32:int][seq:long][payload]},
+ * len+1 écrit en dernier (un payload vide est permis). Un champ nul marque la
+ * fin des données d'un segment ; à la
+ * reprise, le premier enregistrement incomplet (len, crc ou seq incohérent) est
+ * considéré comme une écriture interrompue et effacé.
+ * <p>
+ * Durabilité (group commit) : les écritures mappées survivent à un crash de la
+ * JVM ; contre une panne machine, un fsync couvre au plus {@code syncEvery}
+ * puts, et un thread de fond synchronise toutes les {@code syncInterval}. La
+ * position du consommateur suit la même règle : après panne, des événements
+ * déjà consommés peuvent être relivrés (au moins une fois).
+ * <p>
+ * Mêmes règles de blocage que {@link EventQueueSCC} : capacity borne le nombre
+ * d'événements non consommés.
+ */
+public final class EventQueueJournal<T> implements EventQueue<T>, AutoCloseable {
+
+    static final int HEADER = 16; // len+1 + crc + seq
+    static final String SUFFIX = ".seg";
+    static final String POSITION_FILE = "consumer.pos";
+
+    private static final int DEFAULT_SEGMENT_BYTES = 16 << 20;
+    private static final int DEFAULT_SYNC_EVERY = 256;
+    private static final long DEFAULT_SYNC_INTERVAL_MS = 10;
+
+    private static final class Segment {
+        final long base; // séquence du premier enregistrement
+        final Path path;
+        final FileChannel ch;
+        final MappedByteBuffer buf;
+
+        Segment(long base, Path path, int size) throws IOException {
+            this.base = base;
+            this.path = path;
+            this.ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size); // étend le fichier (zéros)
+        }
+    }
+
+    private final Path dir;
+    private final EventCodec<T> codec;
+    private final int capacity;
+    private final int segmentBytes;
+    private final int syncEvery;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // sous verrou
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>(); // premier : lecture, dernier : écriture
+    private int readOffset, writeOffset;
+    private long readSeq, writeSeq; // prochaine séquence à lire / à écrire
+    private int unsynced;
+    private boolean closed;
+
+    private final FileChannel posChannel;
+    private final MappedByteBuffer position; // [readSeq:long]
+    private final ScheduledExecutorService syncer;
+    private final Metrics syncs = new Metrics();
+
+    public EventQueueJournal(Path dir, EventCodec<T> codec, int capacity) throws IOException {
+        this(dir, codec, capacity, DEFAULT_SEGMENT_BYTES, DEFAULT_SYNC_EVERY,
+                DEFAULT_SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * syncEvery : fsync au plus tous les syncEvery puts (1 = à chaque put) ;
+     * syncInterval : fsync de fond (0 = aucun).
+     */
+    public EventQueueJournal(Path dir, EventCodec<T> codec, int capacity, int segmentBytes,
+            int syncEvery, long syncInterval, TimeUnit unit) throws IOException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        if (segmentBytes <= HEADER)
+            throw new IllegalArgumentException("segmentBytes>" + HEADER + " required");
+        if (syncEvery <= 0)
+            throw new IllegalArgumentException("syncEvery>0 required");
+        Objects.requireNonNull(unit, "unit");
+        this.dir = Objects.requireNonNull(dir, "dir");
+        this.codec = Objects.requireNonNull(codec, "codec");
+        this.capacity = capacity;
+        this.segmentBytes = segmentBytes;
+        this.syncEvery = syncEvery;
+
+        Files.createDirectories(dir);
+        this.posChannel = FileChannel.open(dir.resolve(POSITION_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.position = posChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        recover();
+
+        long period = unit.toNanos(syncInterval);
+        if (period > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(Naming.prefixedFactory("journal-sync", true));
+            syncer.scheduleAtFixedRate(this::sync, period, period, TimeUnit.NANOSECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        offer(item, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean offer(T item) {
+        try {
+            return offer(item, 0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // jamais levée : délai nul, aucune attente
+            return false;
+        }
+    }
+
+    /** timeout Long.MAX_VALUE ns : sans limite. */
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        byte[] payload = encode(item); // hors verrou
+        int crc = crc(payload);
+        long nanos = unit.toNanos(timeout);
+        MappedByteBuffer toSync = null;
+        lock.lock();
+        try {
+            while (size0() >= capacity) {
+                ensureOpen();
+                if (nanos <= 0)
+                    return false;
+                if (nanos == Long.MAX_VALUE)
+                    notFull.await();
+                else
+                    nanos = notFull.awaitNanos(nanos);
+            }
+            ensureOpen();
+            append(payload, crc);
+            notEmpty.signal(); // un consumer suffit
+            if (++unsynced >= syncEvery) {
+                unsynced = 0;
+                toSync = segments.peekLast().buf;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (toSync != null) {
+            toSync.force(); // fsync hors verrou : couvre aussi les puts concurrents
+            position.force();
+            syncs.mark();
+        }
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        byte[] payload;
+        lock.lock();
+        try {
+            ensureOpen();
+            if (size0() == 0)
+                return null;
+            payload = readOne();
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+        return codec.decode(payload);
+    }
+
+    /** timeout Long.MAX_VALUE ns : sans limite. */
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        byte[] payload;
+        lock.lock();
+        try {
+            while (size0() == 0) {
+                ensureOpen();
+                if (nanos <= 0)
+                    return null;
+                if (nanos == Long.MAX_VALUE)
+                    notEmpty.await();
+                else
+                    nanos = notEmpty.awaitNanos(nanos);
+            }
+            ensureOpen();
+            payload = readOne();
+            notFull.signal(); // un producer suffit
+        } finally {
+            lock.unlock();
+        }
+        return codec.decode(payload); // hors verrou
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size0();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        List<byte[]> raw;
+        lock.lock();
+        try {
+            ensureOpen();
+            raw = readBatch(max);
+        } finally {
+            lock.unlock();
+        }
+        for (byte[] b : raw)
+            sink.add(codec.decode(b));
+        return raw.size();
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        long nanos = unit.toNanos(timeout);
+        List<byte[]> raw;
+        lock.lock();
+        try {
+            ensureOpen();
+            while (size0() == 0) {
+                if (nanos <= 0)
+                    return new ArrayList<>();
+                nanos = notEmpty.awaitNanos(nanos);
+                ensureOpen();
+            }
+            raw = readBatch(max);
+        } finally {
+            lock.unlock();
+        }
+        List<T> batch = new ArrayList<>(raw.size());
+        for (byte[] b : raw)
+            batch.add(codec.decode(b));
+        return batch;
+    }
+
+    /** fsync des données et de la position (appelé aussi par le thread de fond). */
+    public void sync() {
+        MappedByteBuffer w;
+        lock.lock();
+        try {
+            if (closed || segments.isEmpty())
+                return;
+            unsynced = 0;
+            w = segments.peekLast().buf;
+        } finally {
+            lock.unlock();
+        }
+        w.force();
+        position.force();
+        syncs.mark();
+    }
+
+    /** fsync effectués (group commit et thread de fond). */
+    public long syncs() {
+        return syncs.snapshot();
+    }
+
+    /** Puts écrits depuis le dernier fsync. */
+    int unsynced() {
+        lock.lock();
+        try {
+            return unsynced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Synchronise et ferme les fichiers ; les threads bloqués reçoivent IllegalStateException. */
+    @Override
+    public void close() throws IOException {
+        if (syncer != null)
+            syncer.shutdownNow();
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            for (Segment s : segments) {
+                s.buf.force();
+                s.ch.close();
+            }
+            position.force();
+            posChannel.close();
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------- écriture / lecture (sous verrou) ----------
+
+    private void append(byte[] payload, int crc) {
+        int need = HEADER + payload.length;
+        if (writeOffset + need > segmentBytes)
+            roll();
+        MappedByteBuffer b = segments.peekLast().buf;
+        int off = writeOffset;
+        b.putInt(off + 4, crc);
+        b.putLong(off + 8, writeSeq);
+        b.put(off + HEADER, payload);
+        b.putInt(off, payload.length + 1); // en dernier : valide l'enregistrement
+        writeOffset += need;
+        writeSeq++;
+    }
+
+    /** Segment plein : terminateur explicite, fsync de l'ancien, nouveau segment à partir de writeSeq. */
+    private void roll() {
+        try {
+            MappedByteBuffer old = segments.peekLast().buf;
+            if (writeOffset + Integer.BYTES <= segmentBytes)
+                old.putInt(writeOffset, 0); // fin de segment, quoi qu'il reste derrière
+            old.force();
+            segments.addLast(new Segment(writeSeq, segmentPath(writeSeq), segmentBytes));
+            writeOffset = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** size0() > 0 requis. */
+    private byte[] readOne() {
+        for (;;) {
+            Segment s = segments.peekFirst();
+            int field = (readOffset + HEADER <= segmentBytes) ? s.buf.getInt(readOffset) : 0;
+            if (field == 0) { // fin de segment : le suivant existe forcément
+                dropFirstSegment();
+                continue;
+            }
+            int len = field - 1;
+            byte[] payload = new byte[len];
+            s.buf.get(readOffset + HEADER, payload);
+            readOffset += HEADER + len;
+            readSeq++;
+            position.putLong(0, readSeq);
+            return payload;
+        }
+    }
+
+    private List<byte[]> readBatch(int max) {
+        int n = Math.min(max, size0());
+        List<byte[]> raw = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            raw.add(readOne());
+        if (n == 1)
+            notFull.signal();
+        else if (n > 1)
+            notFull.signalAll();
+        return raw;
+    }
+
+    private void dropFirstSegment() {
+        Segment s = segments.pollFirst();
+        readOffset = 0;
+        try {
+            s.ch.close();
+            Files.deleteIfExists(s.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int size0() {
+        return (int) (writeSeq - readSeq);
+    }
+
+    // ---------- reprise ----------
+
+    /** Relit les segments, retrouve la fin valide du journal et la position du consommateur. */
+    private void recover() throws IOException {
+        long consumed = position.getLong(0);
+        List<Long> bases = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                bases.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+            }
+        }
+        bases.sort(null);
+
+        writeSeq = bases.isEmpty() ? consumed : bases.get(0);
+        for (long base : bases) {
+            if (base != writeSeq) { // trou (segment précédent tronqué) : la suite est inutilisable
+                Files.deleteIfExists(segmentPath(base));
+                continue;
+            }
+            Segment s = new Segment(base, segmentPath(base), segmentBytes);
+            segments.addLast(s);
+            writeOffset = scan(s); // avance writeSeq
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(new Segment(writeSeq, segmentPath(writeSeq), segmentBytes));
+            writeOffset = 0;
+        }
+        // efface une éventuelle écriture interrompue jusqu'au bout du segment :
+        // len+1 est écrit en dernier, un payload orphelin peut suivre un champ nul
+        MappedByteBuffer last = segments.peekLast().buf;
+        byte[] zeros = new byte[Math.min(segmentBytes - writeOffset, 64 << 10)];
+        for (int z = writeOffset; z < segmentBytes; z += zeros.length)
+            last.put(z, zeros, 0, Math.min(zeros.length, segmentBytes - z));
+
+        readSeq = Math.max(segments.peekFirst().base, Math.min(consumed, writeSeq));
+        while (segments.size() > 1 && readSeq >= secondBase())
+            dropFirstSegment(); // entièrement consommé
+        readOffset = offsetOf(segments.peekFirst(), readSeq);
+        position.putLong(0, readSeq);
+    }
+
+    /** Parcourt les enregistrements valides de s ; renvoie la fin des données. */
+    private int scan(Segment s) {
+        int off = 0;
+        while (off + HEADER <= segmentBytes) {
+            int len = s.buf.getInt(off) - 1;
+            if (len < 0 || off + HEADER + len > segmentBytes
+                    || s.buf.getLong(off + 8) != writeSeq
+                    || s.buf.getInt(off + 4) != crc(s.buf, off + HEADER, len))
+                break; // fin normale, ou écriture interrompue
+            off += HEADER + len;
+            writeSeq++;
+        }
+        return off;
+    }
+
+    private long secondBase() {
+        var it = segments.iterator();
+        it.next();
+        return it.next().base;
+    }
+
+    /** Décalage de la séquence seq dans le segment s (parcours des enregistrements). */
+    private int offsetOf(Segment s, long seq) {
+        int off = 0;
+        for (long q = s.base; q < seq; q++)
+            off += HEADER + s.buf.getInt(off) - 1;
+        return off;
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    private byte[] encode(T item) {
+        byte[] payload = Objects.requireNonNull(codec.encode(item), "encoded");
+        if (HEADER + payload.length > segmentBytes)
+            throw new IllegalArgumentException("event larger than segment");
+        return payload;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 c = new CRC32();
+        c.update(payload);
+        return (int) c.getValue();
+    }
+
+    private static int crc(MappedByteBuffer buf, int off, int len) {
+        CRC32 c = new CRC32();
+        c.update(buf.slice(off, len));
+        return (int) c.getValue();
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("journal closed");
+    }
+}
@@ -1,6 +1,11 @@
 package nebula.queue;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class EventQueueMonitor<T> implements EventQueue<T> {
     private final LinkedList<T> q = new LinkedList<>();
@@ -33,8 +38,114 @@ public class EventQueueMonitor<T> implements EventQueue<T> {
         return x;
     }
 
+    @Override
+    public synchronized boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (q.size() >= capacity)
+            return false;
+        q.addLast(item);
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        while (q.size() >= capacity) {
+            if (nanos <= 0)
+                return false;
+            TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            nanos = deadline - System.nanoTime(); // wait() ne dit pas combien il reste
+        }
+        q.addLast(item);
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized T poll() {
+        if (q.isEmpty())
+            return null;
+        T x = q.removeFirst();
+        notifyAll();
+        return x;
+    }
+
+    @Override
+    public synchronized T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        while (q.isEmpty()) {
+            if (nanos <= 0)
+                return null;
+            TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            nanos = deadline - System.nanoTime();
+        }
+        T x = q.removeFirst();
+        notifyAll();
+        return x;
+    }
+
     @Override
     public synchronized int size() {
         return q.size();
     }
+
+    /** Un seul moniteur par lot (tant que tout tient) et un notifyAll par remplissage. */
+    @Override
+    public synchronized void putAll(Collection<? extends T> items) throws InterruptedException {
+        for (T item : items)
+            if (item == null)
+                throw new NullPointerException("item");
+        var it = items.iterator();
+        while (it.hasNext()) {
+            while (q.size() >= capacity) {
+                wait();
+            }
+            while (it.hasNext() && q.size() < capacity)
+                q.addLast(it.next());
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        return drainLocked(sink, max);
+    }
+
+    @Override
+    public synchronized List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        while (q.isEmpty()) {
+            if (nanos <= 0)
+                return new ArrayList<>();
+            TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            nanos = deadline - System.nanoTime();
+        }
+        List<T> batch = new ArrayList<>(Math.min(max, q.size()));
+        drainLocked(batch, max);
+        return batch;
+    }
+
+    private int drainLocked(Collection<? super T> sink, int max) {
+        int n = 0;
+        while (n < max && !q.isEmpty()) {
+            sink.add(q.removeFirst());
+            n++;
+        }
+        if (n > 0)
+            notifyAll(); // un seul réveil pour tout le lot
+        return n;
+    }
 }
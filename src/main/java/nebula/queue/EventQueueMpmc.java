@@ -0,0 +1,300 @@
+package nebula.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File bornée sans verrou multi-producteurs / multi-consommateurs (schéma de
+ * Vyukov) : chaque case porte un numéro de séquence qui dit si elle est libre
+ * pour le tour courant d'un producteur ({@code seq == pos}) ou pleine pour un
+ * consommateur ({@code seq == pos + 1}). Un seul CAS par opération, sur la
+ * position de queue ou de tête (lignes de cache séparées).
+ * <p>
+ * Consommateurs sur file vide : {@link WaitStrategy} choisie à la construction
+ * (par défaut {@link WaitStrategies#blocking()}). Producteurs sur file pleine :
+ * quelques tours de spin puis de yield, puis verrou + condition ; le compteur
+ * d'attente évite de prendre le verrou quand personne ne dort. Comme la
+ * libération n'a pas de barrière complète, l'attente sur condition est bornée
+ * ({@link WaitStrategies#MAX_PARK_NANOS}) pour rattraper un signal manqué.
+ */
+public class EventQueueMpmc<T> implements EventQueue<T> {
+
+    /** Position isolée sur sa ligne de cache. */
+    @SuppressWarnings("unused")
+    private static final class Pos {
+        long p0, p1, p2, p3, p4, p5, p6;
+        volatile long value;
+        long q0, q1, q2, q3, q4, q5, q6;
+    }
+
+    private static final VarHandle POS;
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+    static {
+        try {
+            POS = MethodHandles.lookup().findVarHandle(Pos.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] seqs;
+    private final Object[] items; // publiés par la séquence de leur case
+    private final int mask;
+    private final int capacity;
+    private final boolean exact; // capacity < taille de l'anneau : borne vérifiée en plus
+    private final Pos tail = new Pos(); // prochaine position de production
+    private final Pos head = new Pos(); // prochaine position de consommation
+
+    private final WaitStrategy consumerWait;
+    // repli bloquant des producteurs
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private volatile int putWaiters; // modifié sous verrou, lu sans
+
+    /** capacity exacte ; l'anneau est arrondi à la puissance de 2 supérieure. */
+    public EventQueueMpmc(int capacity) {
+        this(capacity, WaitStrategies.blocking());
+    }
+
+    public EventQueueMpmc(int capacity, WaitStrategy consumerWait) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("0 < capacity ≤ 2^30 required");
+        this.consumerWait = Objects.requireNonNull(consumerWait, "consumerWait");
+        int size = (capacity == 1) ? 2 : Integer.highestOneBit(capacity - 1) << 1; // ≥ 2 pour le schéma
+        this.capacity = capacity;
+        this.exact = capacity < size;
+        this.seqs = new long[size];
+        this.items = new Object[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++)
+            seqs[i] = i;
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        awaitSpace(item, Long.MAX_VALUE);
+        signalTakers();
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        T x;
+        for (int round = 0; (x = tryPoll()) == null; round++)
+            consumerWait.idle(round, Long.MAX_VALUE, this::isEmpty);
+        signalPutters(1);
+        return x;
+    }
+
+    @Override
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (!tryOffer(item))
+            return false;
+        signalTakers();
+        return true;
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (!awaitSpace(item, unit.toNanos(timeout)))
+            return false;
+        signalTakers();
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        T x = tryPoll();
+        if (x != null)
+            signalPutters(1);
+        return x;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T x = awaitItem(unit.toNanos(timeout));
+        if (x != null)
+            signalPutters(1);
+        return x;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        int n = drain(sink, max);
+        signalPutters(n); // un seul passage sous verrou pour le lot
+        return n;
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        List<T> batch = new ArrayList<>();
+        T first = tryPoll();
+        if (first == null && (first = awaitItem(unit.toNanos(timeout))) == null)
+            return batch;
+        batch.add(first);
+        int n = 1 + ((max > 1) ? drain(batch, max - 1) : 0);
+        signalPutters(n); // la case du premier compte aussi
+        return batch;
+    }
+
+    /** Retire jusqu'à max éléments sans réveiller personne ; renvoie leur nombre. */
+    private int drain(Collection<? super T> sink, int max) {
+        int n = 0;
+        T x;
+        while (n < max && (x = tryPoll()) != null) {
+            sink.add(x);
+            n++;
+        }
+        return n;
+    }
+
+    /** Estimation sans CAS (deux lectures), toujours dans [0, capacity]. */
+    @Override
+    public int size() {
+        long h = head.value;
+        long t = tail.value;
+        return (int) Math.max(0, Math.min(capacity, t - h));
+    }
+
+    // ---------- cœur sans verrou ----------
+
+    /** Cœur non bloquant : false si pleine ; sans réveil. */
+    private boolean tryOffer(T item) {
+        for (;;) {
+            long pos = tail.value;
+            int i = (int) pos & mask;
+            long dif = (long) SEQ.getAcquire(seqs, i) - pos;
+            if (dif == 0) {
+                // head ne fait que croître : une lecture ancienne surestime l'occupation
+                if (exact && pos - head.value >= capacity)
+                    return false;
+                if (POS.compareAndSet(tail, pos, pos + 1)) {
+                    items[i] = item;
+                    SEQ.setRelease(seqs, i, pos + 1); // case pleine pour le tour pos
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false; // case pas encore rendue par le tour précédent : pleine
+            }
+            // dif > 0 : un autre producteur a avancé, on relit
+        }
+    }
+
+    /** Cœur non bloquant : null si vide ; sans réveil. */
+    @SuppressWarnings("unchecked")
+    private T tryPoll() {
+        for (;;) {
+            long pos = head.value;
+            int i = (int) pos & mask;
+            long dif = (long) SEQ.getAcquire(seqs, i) - (pos + 1);
+            if (dif == 0) {
+                if (POS.compareAndSet(head, pos, pos + 1)) {
+                    T x = (T) items[i];
+                    items[i] = null;
+                    SEQ.setRelease(seqs, i, pos + mask + 1); // libre pour le tour suivant
+                    return x;
+                }
+            } else if (dif < 0) {
+                return null; // vide
+            }
+        }
+    }
+
+    /**
+     * Dépose item en attendant au plus nanos (Long.MAX_VALUE : sans limite) ;
+     * false à l'échéance. Spin, yield, puis condition à attente bornée.
+     */
+    private boolean awaitSpace(T item, long nanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        for (int round = 0; round < WaitStrategies.SPINS + WaitStrategies.YIELDS; round++) {
+            if (tryOffer(item))
+                return true;
+            if (nanos != Long.MAX_VALUE && deadline - System.nanoTime() <= 0)
+                return false;
+            backoff(round);
+        }
+        lock.lockInterruptibly();
+        try {
+            putWaiters++;
+            try {
+                while (!tryOffer(item)) {
+                    long left = (nanos == Long.MAX_VALUE)
+                            ? WaitStrategies.MAX_PARK_NANOS
+                            : deadline - System.nanoTime();
+                    if (left <= 0)
+                        return false;
+                    notFull.awaitNanos(Math.min(left, WaitStrategies.MAX_PARK_NANOS));
+                }
+                return true;
+            } finally {
+                putWaiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Attente bornée d'un élément selon la stratégie ; null à l'échéance. */
+    private T awaitItem(long nanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        T x;
+        for (int round = 0; (x = tryPoll()) == null; round++) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0)
+                return null;
+            consumerWait.idle(round, left, this::isEmpty);
+        }
+        return x;
+    }
+
+    /** Rien de publié en tête (revérification avant sommeil). */
+    private boolean isEmpty() {
+        long pos = head.value;
+        return (long) SEQ.getVolatile(seqs, (int) pos & mask) - (pos + 1) < 0;
+    }
+
+    /** Spin court, puis yield (laisse passer l'autre côté sur peu de cœurs). */
+    private static void backoff(int round) {
+        if (round < WaitStrategies.SPINS)
+            Thread.onSpinWait();
+        else
+            Thread.yield();
+    }
+
+    private void signalTakers() {
+        consumerWait.signal();
+    }
+
+    /** freed cases libérées : un producteur par case au plus, tous si plusieurs. */
+    private void signalPutters(int freed) {
+        if (freed > 0 && putWaiters > 0) {
+            lock.lock();
+            try {
+                if (freed == 1)
+                    notFull.signal();
+                else
+                    notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package nebula.queue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File bornée à priorité : {@code take} rend le plus petit élément selon
+ * {@code order}, et à priorité égale le plus ancien (numéro d'arrivée global :
+ * ordre stable). Tas binaire sur tableau.
+ * <p>
+ * Même contre-pression que {@link EventQueueSCC} : capacity borne le nombre
+ * d'éléments, via deux sémaphores (places libres / éléments présents) qui
+ * portent aussi toutes les attentes.
+ * <p>
+ * shards &gt; 1 : un tas et un verrou par shard ; chaque producteur dépose dans
+ * son shard (dérivé de l'identifiant du thread), les producteurs ne se
+ * disputent donc plus un seul verrou. Un consommateur compare les têtes de tous
+ * les shards et prend la meilleure : ordre exact quand la file est stable,
+ * approximatif face à des dépôts concurrents dans d'autres shards.
+ */
+public class EventQueuePriority<T> implements EventQueue<T> {
+
+    /** Tas binaire : items[i] et seqs[i] vont ensemble ; racine = meilleur. */
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        Object[] items;
+        long[] seqs;
+        int size;
+
+        Shard(int initial) {
+            items = new Object[initial];
+            seqs = new long[initial];
+        }
+    }
+
+    private static final int INITIAL_SHARD_CAPACITY = 16;
+
+    private final Comparator<? super T> order;
+    private final Shard[] shards;
+    private final Semaphore slots; // places libres
+    private final Semaphore items = new Semaphore(0); // éléments déposés, non réservés
+    private final AtomicLong nextSeq = new AtomicLong();
+
+    public EventQueuePriority(int capacity, Comparator<? super T> order) {
+        this(capacity, order, 1);
+    }
+
+    /** shards : nombre de tas indépendants (1 = ordre strict). */
+    public EventQueuePriority(int capacity, Comparator<? super T> order, int shards) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        if (shards <= 0)
+            throw new IllegalArgumentException("shards>0 required");
+        this.order = Objects.requireNonNull(order, "order");
+        this.slots = new Semaphore(capacity);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++)
+            this.shards[i] = new Shard(Math.min(capacity, INITIAL_SHARD_CAPACITY)); // grossit à la demande
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        slots.acquire();
+        insert(item);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        items.acquire();
+        return removeBest();
+    }
+
+    @Override
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (!slots.tryAcquire())
+            return false;
+        insert(item);
+        return true;
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (!slots.tryAcquire(timeout, unit))
+            return false;
+        insert(item);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        return items.tryAcquire() ? removeBest() : null;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return items.tryAcquire(timeout, unit) ? removeBest() : null;
+    }
+
+    /** Approximatif sous concurrence : éléments déposés et pas encore réservés. */
+    @Override
+    public int size() {
+        return items.availablePermits();
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        int n = 0;
+        while (n < max && items.tryAcquire()) {
+            sink.add(removeBest());
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        List<T> batch = new ArrayList<>();
+        T first = poll(timeout, unit);
+        if (first == null)
+            return batch;
+        batch.add(first);
+        if (max > 1)
+            drainTo(batch, max - 1);
+        return batch;
+    }
+
+    /** Nombre de shards. */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    // ---------- interne ----------
+
+    /** Une place est réservée : dépôt dans le shard du thread, puis publication. */
+    private void insert(T item) {
+        long seq = nextSeq.getAndIncrement();
+        Shard s = shards[home()];
+        s.lock.lock();
+        try {
+            if (s.size == s.items.length) {
+                int n = s.size << 1; // au plus capacity en pratique : borné par slots
+                s.items = Arrays.copyOf(s.items, n);
+                s.seqs = Arrays.copyOf(s.seqs, n);
+            }
+            siftUp(s, s.size++, item, seq);
+        } finally {
+            s.lock.unlock();
+        }
+        items.release();
+    }
+
+    /**
+     * Un élément est réservé (permis de items) : il existe forcément dans un
+     * shard, mais un autre consommateur peut prendre la tête choisie entre la
+     * comparaison et le retrait ; on recommence alors.
+     */
+    private T removeBest() {
+        for (;;) {
+            Shard best = shards[0];
+            if (shards.length > 1)
+                best = bestShard();
+            if (best != null) {
+                best.lock.lock();
+                try {
+                    if (best.size > 0) {
+                        T x = pollFirst(best);
+                        slots.release();
+                        return x;
+                    }
+                } finally {
+                    best.lock.unlock();
+                }
+            }
+            Thread.onSpinWait(); // tête prise par un autre consommateur : la nôtre est ailleurs
+        }
+    }
+
+    /** Shard dont la tête est la meilleure (priorité, puis arrivée) ; null si tous vides. */
+    private Shard bestShard() {
+        Shard best = null;
+        T bestItem = null;
+        long bestSeq = 0;
+        for (Shard s : shards) {
+            s.lock.lock();
+            try {
+                if (s.size == 0)
+                    continue;
+                @SuppressWarnings("unchecked")
+                T head = (T) s.items[0];
+                if (best == null || before(head, s.seqs[0], bestItem, bestSeq)) {
+                    best = s;
+                    bestItem = head;
+                    bestSeq = s.seqs[0];
+                }
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return best;
+    }
+
+    /** Sous le verrou de s, s non vide. */
+    @SuppressWarnings("unchecked")
+    private T pollFirst(Shard s) {
+        T x = (T) s.items[0];
+        int n = --s.size;
+        Object last = s.items[n];
+        long lastSeq = s.seqs[n];
+        s.items[n] = null; // pas de rétention d'objet
+        if (n > 0)
+            siftDown(s, 0, (T) last, lastSeq);
+        return x;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftUp(Shard s, int k, T x, long seq) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!before(x, seq, (T) s.items[parent], s.seqs[parent]))
+                break;
+            s.items[k] = s.items[parent];
+            s.seqs[k] = s.seqs[parent];
+            k = parent;
+        }
+        s.items[k] = x;
+        s.seqs[k] = seq;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftDown(Shard s, int k, T x, long seq) {
+        int half = s.size >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int right = child + 1;
+            if (right < s.size && before((T) s.items[right], s.seqs[right], (T) s.items[child], s.seqs[child]))
+                child = right;
+            if (!before((T) s.items[child], s.seqs[child], x, seq))
+                break;
+            s.items[k] = s.items[child];
+            s.seqs[k] = s.seqs[child];
+            k = child;
+        }
+        s.items[k] = x;
+        s.seqs[k] = seq;
+    }
+
+    /** a passe avant b : meilleure priorité, ou même priorité et arrivé avant. */
+    private boolean before(T a, long seqA, T b, long seqB) {
+        int c = order.compare(a, b);
+        return c < 0 || (c == 0 && seqA < seqB);
+    }
+
+    /** Shard du thread courant (mélange de Fibonacci, comme ResourcePoolStriped). */
+    private int home() {
+        if (shards.length == 1)
+            return 0;
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % shards.length);
+    }
+}
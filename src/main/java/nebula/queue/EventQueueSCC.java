@@ -1,21 +1,34 @@
 package nebula.queue;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class EventQueueSCC<T> implements EventQueue<T> {
     private final ArrayDeque<T> q;
     private final int capacity;
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
-    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
 
     public EventQueueSCC(int capacity) {
+        this(capacity, false);
+    }
+
+    /** fair : verrou équitable (ordre d'arrivée), au prix du débit. */
+    public EventQueueSCC(int capacity, boolean fair) {
         if (capacity <= 0)
             throw new IllegalArgumentException("capacity>0 required");
         this.capacity = capacity;
         this.q = new ArrayDeque<>(capacity);
+        this.lock = new ReentrantLock(fair);
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
     }
 
     @Override
@@ -49,6 +62,74 @@ public class EventQueueSCC<T> implements EventQueue<T> {
         }
     }
 
+    @Override
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        lock.lock();
+        try {
+            if (q.size() == capacity)
+                return false;
+            q.addLast(item);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (q.size() == capacity) {
+                if (nanos <= 0)
+                    return false;
+                nanos = notFull.awaitNanos(nanos); // reste à attendre, malgré les réveils intempestifs
+            }
+            q.addLast(item);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            if (q.isEmpty())
+                return null;
+            T x = q.removeFirst();
+            notFull.signal();
+            return x;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (q.isEmpty()) {
+                if (nanos <= 0)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T x = q.removeFirst();
+            notFull.signal();
+            return x;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public int size() {
         lock.lock();
@@ -58,4 +139,82 @@ public class EventQueueSCC<T> implements EventQueue<T> {
             lock.unlock();
         }
     }
+
+    /** Un seul verrou par lot (tant que tout tient) et un seul réveil par remplissage. */
+    @Override
+    public void putAll(Collection<? extends T> items) throws InterruptedException {
+        for (T item : items)
+            if (item == null)
+                throw new NullPointerException("item");
+        var it = items.iterator();
+        if (!it.hasNext())
+            return;
+        lock.lock();
+        try {
+            while (it.hasNext()) {
+                while (q.size() == capacity) {
+                    notFull.await();
+                }
+                int added = 0;
+                while (it.hasNext() && q.size() < capacity) {
+                    q.addLast(it.next());
+                    added++;
+                }
+                if (added == 1)
+                    notEmpty.signal();
+                else
+                    notEmpty.signalAll(); // plusieurs éléments : plusieurs consumers possibles
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        lock.lock();
+        try {
+            return drainLocked(sink, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (q.isEmpty()) {
+                if (nanos <= 0)
+                    return new ArrayList<>();
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            List<T> batch = new ArrayList<>(Math.min(max, q.size()));
+            drainLocked(batch, max);
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sous verrou : retire jusqu'à max éléments, un seul réveil des producers. */
+    private int drainLocked(Collection<? super T> sink, int max) {
+        int n = 0;
+        while (n < max && !q.isEmpty()) {
+            sink.add(q.removeFirst());
+            n++;
+        }
+        if (n == 1)
+            notFull.signal();
+        else if (n > 1)
+            notFull.signalAll();
+        return n;
+    }
 }
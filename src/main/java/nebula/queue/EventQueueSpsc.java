@@ -0,0 +1,295 @@
+package nebula.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * File bornée sans verrou pour exactement UN producteur et UN consommateur.
+ * Anneau de taille puissance de 2 (indice = séquence & mask), séquences tête et
+ * queue sur des lignes de cache séparées. Publication par setRelease
+ * (lazySet) : pas de barrière complète sur le chemin rapide. Chaque côté garde
+ * en cache la dernière séquence lue de l'autre côté et ne la relit que quand
+ * l'anneau semble plein / vide.
+ * <p>
+ * Vide : le consommateur attend selon la {@link WaitStrategy} choisie (par
+ * défaut {@link WaitStrategies#spinThenPark()} : rien à payer côté producteur,
+ * latence de réveil bornée à 1 ms ; {@link WaitStrategies#blocking()} réveille
+ * aussitôt mais coûte une barrière complète par publication). Plein : spin, puis yield, puis
+ * parkNanos ; le réveil par le consommateur n'est pas garanti (publication sans
+ * barrière complète) : l'attente est donc bornée à
+ * {@link WaitStrategies#MAX_PARK_NANOS} avant de revérifier.
+ * <p>
+ * Lots ({@link #putAll}, {@link #drainTo}, {@link #takeBatch}) : une seule
+ * publication de séquence et au plus un réveil par lot.
+ * <p>
+ * Non vérifié à l'exécution : plusieurs producteurs (ou consommateurs)
+ * concurrents corrompent la file.
+ */
+public class EventQueueSpsc<T> implements EventQueue<T> {
+
+    /** Séquence isolée sur sa ligne de cache, avec l'état privé de son propriétaire. */
+    @SuppressWarnings("unused")
+    private static final class Seq {
+        long p0, p1, p2, p3, p4, p5, p6;
+        volatile long value;
+        long cached; // dernière séquence lue de l'autre côté (propriétaire seulement)
+        volatile Thread waiter; // producteur parké sur plein (head seulement)
+        long q0, q1, q2, q3, q4, q5, q6;
+    }
+
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Seq.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] ring;
+    private final int mask;
+    private final int capacity;
+    private final Seq head = new Seq(); // prochain à lire : écrit par le consommateur
+    private final Seq tail = new Seq(); // prochain à écrire : écrit par le producteur
+    private final WaitStrategy consumerWait;
+
+    /** capacity exacte ; l'anneau est arrondi à la puissance de 2 supérieure. */
+    public EventQueueSpsc(int capacity) {
+        this(capacity, WaitStrategies.spinThenPark());
+    }
+
+    public EventQueueSpsc(int capacity, WaitStrategy consumerWait) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("0 < capacity ≤ 2^30 required");
+        this.consumerWait = Objects.requireNonNull(consumerWait, "consumerWait");
+        this.capacity = capacity;
+        int size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new Object[size];
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        final long t = tail.value;
+        if (t - tail.cached >= capacity) {
+            tail.cached = (long) VALUE.getAcquire(head);
+            if (t - tail.cached >= capacity)
+                awaitSpace(t, Long.MAX_VALUE);
+        }
+        publish(t, item);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        final long h = head.value;
+        if (h >= head.cached) {
+            head.cached = (long) VALUE.getAcquire(tail);
+            if (h >= head.cached)
+                awaitItem(h);
+        }
+        return consume(h);
+    }
+
+    @Override
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        final long t = tail.value;
+        if (t - tail.cached >= capacity) {
+            tail.cached = (long) VALUE.getAcquire(head);
+            if (t - tail.cached >= capacity)
+                return false;
+        }
+        publish(t, item);
+        return true;
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        final long t = tail.value;
+        if (t - tail.cached >= capacity) {
+            tail.cached = (long) VALUE.getAcquire(head);
+            if (t - tail.cached >= capacity && !awaitSpace(t, unit.toNanos(timeout)))
+                return false;
+        }
+        publish(t, item);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        final long h = head.value;
+        if (h >= head.cached) {
+            head.cached = (long) VALUE.getAcquire(tail);
+            if (h >= head.cached)
+                return null;
+        }
+        return consume(h);
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final long h = head.value;
+        if (h >= head.cached) {
+            head.cached = (long) VALUE.getAcquire(tail);
+            if (h >= head.cached && !awaitItem(h, System.nanoTime() + unit.toNanos(timeout)))
+                return null;
+        }
+        return consume(h);
+    }
+
+    /** Publie par tranches : une séquence publiée pour tout ce qui tient dans l'anneau. */
+    @Override
+    public void putAll(Collection<? extends T> items) throws InterruptedException {
+        for (T item : items)
+            if (item == null)
+                throw new NullPointerException("item");
+        var it = items.iterator();
+        while (it.hasNext()) {
+            long t = tail.value;
+            if (t - tail.cached >= capacity) {
+                tail.cached = (long) VALUE.getAcquire(head);
+                if (t - tail.cached >= capacity)
+                    awaitSpace(t, Long.MAX_VALUE);
+            }
+            long end = tail.cached + capacity; // première séquence hors place
+            while (it.hasNext() && t < end)
+                ring[(int) t++ & mask] = it.next();
+            VALUE.setRelease(tail, t);
+            consumerWait.signal();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        return drain(sink, max);
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        final long h = head.value;
+        if (h >= head.cached) {
+            head.cached = (long) VALUE.getAcquire(tail);
+            if (h >= head.cached && !awaitItem(h, System.nanoTime() + unit.toNanos(timeout)))
+                return new ArrayList<>();
+        }
+        List<T> batch = new ArrayList<>((int) Math.min(max, head.cached - h));
+        drain(batch, max);
+        return batch;
+    }
+
+    /** Producteur, case t libre. */
+    private void publish(long t, T item) {
+        ring[(int) t & mask] = item;
+        VALUE.setRelease(tail, t + 1); // publie l'élément
+        consumerWait.signal();
+    }
+
+    /** Consommateur, élément h publié. */
+    @SuppressWarnings("unchecked")
+    private T consume(long h) {
+        int i = (int) h & mask;
+        T x = (T) ring[i];
+        ring[i] = null; // pas de rétention d'objet
+        VALUE.setRelease(head, h + 1); // rend la case
+        Thread w = head.waiter;
+        if (w != null)
+            LockSupport.unpark(w);
+        return x;
+    }
+
+    /** Consommateur : prend jusqu'à max éléments, une seule publication de head. */
+    @SuppressWarnings("unchecked")
+    private int drain(Collection<? super T> sink, int max) {
+        long h = head.value;
+        if (h >= head.cached)
+            head.cached = (long) VALUE.getAcquire(tail);
+        int n = (int) Math.min(max, head.cached - h);
+        for (int k = 0; k < n; k++, h++) {
+            int i = (int) h & mask;
+            sink.add((T) ring[i]);
+            ring[i] = null;
+        }
+        if (n > 0) {
+            VALUE.setRelease(head, h);
+            Thread w = head.waiter;
+            if (w != null)
+                LockSupport.unpark(w);
+        }
+        return n;
+    }
+
+    /** Approximatif sous concurrence, toujours dans [0, capacity]. */
+    @Override
+    public int size() {
+        long h = (long) VALUE.getAcquire(head);
+        long t = (long) VALUE.getAcquire(tail);
+        return (int) Math.max(0, Math.min(capacity, t - h));
+    }
+
+    // ---------- attentes (chemin lent) ----------
+
+    /** Attend au plus nanos (Long.MAX_VALUE : sans limite) ; false à l'échéance. */
+    private boolean awaitSpace(long t, long nanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        for (int round = 0; t - (tail.cached = (long) VALUE.getAcquire(head)) >= capacity; round++) {
+            long left = (nanos == Long.MAX_VALUE) ? WaitStrategies.MAX_PARK_NANOS : deadline - System.nanoTime();
+            if (left <= 0)
+                return false;
+            idle(round, left, () -> t - (long) VALUE.getVolatile(head) >= capacity);
+        }
+        return true;
+    }
+
+    private void awaitItem(long h) throws InterruptedException {
+        for (int round = 0; h >= (head.cached = (long) VALUE.getAcquire(tail)); round++)
+            consumerWait.idle(round, Long.MAX_VALUE, () -> h >= (long) VALUE.getVolatile(tail));
+    }
+
+    /** Comme awaitItem, jusqu'à deadline (System.nanoTime()) ; false à l'échéance. */
+    private boolean awaitItem(long h, long deadline) throws InterruptedException {
+        for (int round = 0; h >= (head.cached = (long) VALUE.getAcquire(tail)); round++) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0)
+                return false;
+            consumerWait.idle(round, left, () -> h >= (long) VALUE.getVolatile(tail));
+        }
+        return true;
+    }
+
+    /** Producteur sur plein : spin → yield → park ; on s'annonce dans head.waiter avant de parker. */
+    private void idle(int round, long maxNanos, BooleanSupplier stillFull) throws InterruptedException {
+        if (round < WaitStrategies.SPINS) {
+            Thread.onSpinWait();
+        } else if (round < WaitStrategies.SPINS + WaitStrategies.YIELDS) {
+            Thread.yield();
+        } else {
+            head.waiter = Thread.currentThread();
+            try {
+                if (stillFull.getAsBoolean()) // revérifie après s'être annoncé
+                    LockSupport.parkNanos(this, Math.min(maxNanos, WaitStrategies.MAX_PARK_NANOS));
+            } finally {
+                head.waiter = null;
+            }
+        }
+        if (Thread.interrupted())
+            throw new InterruptedException();
+    }
+}
@@ -0,0 +1,301 @@
+package nebula.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Variante de {@link EventQueueSCC} à deux verrous : {@code putLock} protège la
+ * queue de l'anneau, {@code takeLock} la tête, et un compteur atomique relie
+ * les deux. Producteurs et consommateurs avancent en parallèle tant que la file
+ * n'est ni vide ni pleine. Signal croisé (prendre l'autre verrou) seulement aux
+ * transitions vide → non vide et plein → non plein ; entre threads d'un même
+ * côté, le réveil se propage en cascade.
+ */
+public class EventQueueTwoLock<T> implements EventQueue<T> {
+    private final Object[] items;
+    private final int capacity;
+    private int putIndex; // sous putLock
+    private int takeIndex; // sous takeLock
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final ReentrantLock putLock;
+    private final Condition notFull;
+    private final ReentrantLock takeLock;
+    private final Condition notEmpty;
+
+    public EventQueueTwoLock(int capacity) {
+        this(capacity, false);
+    }
+
+    /** fair : verrous équitables (ordre d'arrivée), au prix du débit. */
+    public EventQueueTwoLock(int capacity, boolean fair) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        this.capacity = capacity;
+        this.items = new Object[capacity];
+        this.putLock = new ReentrantLock(fair);
+        this.notFull = putLock.newCondition();
+        this.takeLock = new ReentrantLock(fair);
+        this.notEmpty = takeLock.newCondition();
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        final int c;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                notFull.await();
+            }
+            c = enqueue(item);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0)
+            signalNotEmpty(); // vide → non vide
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        final T x;
+        final int c;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                notEmpty.await();
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1)
+                notEmpty.signal(); // cascade : reste des éléments pour un autre consumer
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull(); // plein → non plein
+        return x;
+    }
+
+    @Override
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException("item");
+        if (count.get() == capacity)
+            return false; // sans verrou
+        final int c;
+        putLock.lock();
+        try {
+            if (count.get() == capacity)
+                return false;
+            c = enqueue(item);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        long nanos = unit.toNanos(timeout);
+        final int c;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                if (nanos <= 0)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            c = enqueue(item);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        if (count.get() == 0)
+            return null; // sans verrou
+        final T x;
+        final int c;
+        takeLock.lock();
+        try {
+            if (count.get() == 0)
+                return null;
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return x;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final T x;
+        final int c;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return x;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public void putAll(Collection<? extends T> batch) throws InterruptedException {
+        for (T item : batch)
+            if (item == null)
+                throw new NullPointerException("item");
+        var it = batch.iterator();
+        while (it.hasNext()) {
+            int c, n = 0;
+            putLock.lockInterruptibly();
+            try {
+                while (count.get() == capacity) {
+                    notFull.await();
+                }
+                int room = capacity - count.get(); // ne peut que croître pendant qu'on remplit
+                while (it.hasNext() && n < room) {
+                    items[putIndex] = it.next();
+                    if (++putIndex == capacity)
+                        putIndex = 0;
+                    n++;
+                }
+                c = count.getAndAdd(n);
+                if (c + n < capacity)
+                    notFull.signal();
+            } finally {
+                putLock.unlock();
+            }
+            if (c == 0)
+                signalNotEmpty(); // les consumers se réveillent ensuite en cascade
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> sink, int max) {
+        Objects.requireNonNull(sink, "sink");
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        takeLock.lock();
+        try {
+            return drainLocked(sink, max);
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<T> takeBatch(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0)
+            throw new IllegalArgumentException("max>0 required");
+        Objects.requireNonNull(unit, "unit");
+        long nanos = unit.toNanos(timeout);
+        List<T> batch = new ArrayList<>();
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0)
+                    return batch;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            drainLocked(batch, max);
+            return batch;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    // ---------- interne ----------
+
+    /** Sous takeLock ; le réveil des producers se fait hors takeLock. */
+    private int drainLocked(Collection<? super T> sink, int max) {
+        int n = Math.min(max, count.get());
+        if (n == 0)
+            return 0;
+        for (int i = 0; i < n; i++)
+            sink.add(dequeue());
+        int c = count.getAndAdd(-n);
+        if (c > n)
+            notEmpty.signal();
+        if (c == capacity) {
+            // plein → non plein : prendre putLock sous takeLock est sûr (ordre take → put)
+            signalNotFull();
+        }
+        return n;
+    }
+
+    /** Sous putLock, place disponible ; renvoie le compte avant ajout. */
+    private int enqueue(T item) {
+        items[putIndex] = item;
+        if (++putIndex == capacity)
+            putIndex = 0;
+        int c = count.getAndIncrement(); // publie l'élément pour le côté take
+        if (c + 1 < capacity)
+            notFull.signal(); // cascade : encore de la place pour un autre producer
+        return c;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T dequeue() {
+        T x = (T) items[takeIndex];
+        items[takeIndex] = null;
+        if (++takeIndex == capacity)
+            takeIndex = 0;
+        return x;
+    }
+
+    private void signalNotEmpty() {
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    private void signalNotFull() {
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+}
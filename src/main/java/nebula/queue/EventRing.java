@@ -0,0 +1,247 @@
+package nebula.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Anneau d'événements mutables préalloués (style Disruptor) : les capacity
+ * cases sont créées une fois par {@code factory}, puis réutilisées ; aucun
+ * objet n'est alloué par événement.
+ * <p>
+ * Producteur : {@link #claim()} réserve une séquence (bloque quand l'anneau est
+ * plein), {@link #get(long)} donne la case à remplir, {@link #publish(long)} la
+ * rend visible. Plusieurs producteurs peuvent publier dans le désordre : les
+ * consommateurs ne voient que le préfixe publié contigu.
+ * <p>
+ * Consommateurs : chacun a son {@link Cursor} et voit TOUS les événements
+ * (diffusion), lus en place dans le handler. Une case n'est recyclée que quand
+ * le plus lent des consommateurs l'a dépassée : un consommateur arrêté bloque
+ * les producteurs.
+ * <p>
+ * Même modèle de blocage que {@link EventQueueSCC} (un verrou, notFull /
+ * notEmpty) ; le remplissage et la lecture des cases se font hors verrou, entre
+ * claim et publish, et pendant le handler.
+ */
+public class EventRing<E> {
+
+    private final Object[] slots;
+    private final long[] available; // séquence publiée dans chaque case
+    private final int capacity;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final Condition notEmpty;
+    private final List<Cursor> cursors;
+
+    // sous verrou
+    private long nextClaim; // prochaine séquence à réserver
+    private long published = -1; // dernière séquence du préfixe publié contigu
+    private final long[] reads; // prochaine séquence à lire, par consommateur
+    private long gate; // min(reads) : les cases avant gate sont libres
+
+    public EventRing(int capacity, int consumers, Supplier<? extends E> factory) {
+        this(capacity, consumers, factory, false);
+    }
+
+    /** fair : verrou équitable (ordre d'arrivée), au prix du débit. */
+    public EventRing(int capacity, int consumers, Supplier<? extends E> factory, boolean fair) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        if (consumers <= 0)
+            throw new IllegalArgumentException("consumers>0 required");
+        Objects.requireNonNull(factory, "factory");
+        this.capacity = capacity;
+        this.slots = new Object[capacity];
+        this.available = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = Objects.requireNonNull(factory.get(), "event");
+            available[i] = -1;
+        }
+        this.lock = new ReentrantLock(fair);
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+        this.reads = new long[consumers];
+        List<Cursor> cs = new ArrayList<>(consumers);
+        for (int i = 0; i < consumers; i++)
+            cs.add(new Cursor(i));
+        this.cursors = List.copyOf(cs);
+    }
+
+    // ---------- producteurs ----------
+
+    /** Réserve la séquence suivante ; bloque tant que le plus lent consommateur n'a pas libéré de case. */
+    public long claim() throws InterruptedException {
+        lock.lock();
+        try {
+            while (nextClaim - gate >= capacity) {
+                notFull.await();
+            }
+            return nextClaim++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Non bloquant : -1 si l'anneau est plein. */
+    public long tryClaim() {
+        lock.lock();
+        try {
+            return (nextClaim - gate >= capacity) ? -1 : nextClaim++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Case d'une séquence réservée (producteur) ou en cours de lecture (handler). */
+    @SuppressWarnings("unchecked")
+    public E get(long seq) {
+        return (E) slots[index(seq)];
+    }
+
+    /** Rend visible la séquence seq, réservée par claim et remplie. */
+    public void publish(long seq) {
+        lock.lock();
+        try {
+            int i = index(seq);
+            if (seq <= published || seq >= nextClaim || available[i] == seq)
+                throw new IllegalStateException("sequence not claimed: " + seq);
+            available[i] = seq;
+            long p = published;
+            while (p + 1 < nextClaim && available[index(p + 1)] == p + 1)
+                p++;
+            if (p != published) {
+                published = p;
+                notEmpty.signalAll(); // chaque consommateur lit tous les événements
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** claim, remplissage par writer, publish (même si writer lève une exception). */
+    public void publishEvent(Consumer<? super E> writer) throws InterruptedException {
+        long seq = claim();
+        try {
+            writer.accept(get(seq));
+        } finally {
+            publish(seq);
+        }
+    }
+
+    // ---------- consommateurs ----------
+
+    /** Curseur du consommateur i (un seul thread à la fois par curseur). */
+    public Cursor cursor(int i) {
+        return cursors.get(i);
+    }
+
+    public int consumers() {
+        return cursors.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Événements publiés que le plus lent consommateur n'a pas encore lus. */
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (published + 1 - gate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Position de lecture d'un consommateur ; le handler lit la case en place. */
+    public final class Cursor {
+        private final int id;
+
+        private Cursor(int id) {
+            this.id = id;
+        }
+
+        /** Attend l'événement suivant et le passe à handler ; la case est rendue après. */
+        public void take(Consumer<? super E> handler) throws InterruptedException {
+            long seq;
+            lock.lock();
+            try {
+                seq = reads[id];
+                while (seq > published) {
+                    notEmpty.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                handler.accept(get(seq));
+            } finally {
+                advance(seq + 1);
+            }
+        }
+
+        /** Non bloquant : false si rien de nouveau. */
+        public boolean poll(Consumer<? super E> handler) {
+            return drain(handler, 1) == 1;
+        }
+
+        /** Non bloquant : lit jusqu'à max événements publiés, un seul passage sous verrou pour les rendre. */
+        public int drain(Consumer<? super E> handler, int max) {
+            if (max <= 0)
+                throw new IllegalArgumentException("max>0 required");
+            long from, to;
+            lock.lock();
+            try {
+                from = reads[id];
+                to = Math.min(published + 1, from + max);
+            } finally {
+                lock.unlock();
+            }
+            long seq = from;
+            try {
+                for (; seq < to; seq++)
+                    handler.accept(get(seq));
+            } finally {
+                if (seq < to)
+                    seq++; // case du handler en échec : rendue aussi
+                if (seq > from)
+                    advance(seq);
+            }
+            return (int) (to - from);
+        }
+
+        /** Prochaine séquence à lire. */
+        public long sequence() {
+            lock.lock();
+            try {
+                return reads[id];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void advance(long next) {
+            lock.lock();
+            try {
+                reads[id] = next;
+                long g = next;
+                for (long r : reads)
+                    g = Math.min(g, r);
+                if (g != gate) {
+                    gate = g;
+                    notFull.signalAll(); // plusieurs cases libérées possibles
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+}
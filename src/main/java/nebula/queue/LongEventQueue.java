@@ -0,0 +1,74 @@
+package nebula.queue;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Équivalent de {@link EventQueueSCC} pour des {@code long}, sans boxing :
+ * anneau {@code long[]} alloué une fois, mêmes règles de blocage (verrou +
+ * conditions notFull / notEmpty). Régime établi : aucune allocation.
+ */
+public class LongEventQueue {
+    private final long[] ring;
+    private final int capacity;
+    private int head, count; // sous verrou
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    public LongEventQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    /** fair : verrou équitable (ordre d'arrivée), au prix du débit. */
+    public LongEventQueue(int capacity, boolean fair) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity>0 required");
+        this.capacity = capacity;
+        this.ring = new long[capacity];
+        this.lock = new ReentrantLock(fair);
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+    }
+
+    public void put(long item) throws InterruptedException {
+        lock.lock();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            int tail = head + count;
+            ring[tail >= capacity ? tail - capacity : tail] = item;
+            count++;
+            notEmpty.signal(); // un consumer suffit
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            long x = ring[head];
+            if (++head == capacity)
+                head = 0;
+            count--;
+            notFull.signal(); // un producer suffit
+            return x;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
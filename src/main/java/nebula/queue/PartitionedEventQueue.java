@@ -0,0 +1,270 @@
+package nebula.queue;
+
+import nebula.core.Histogram;
+import nebula.core.Metrics;
+import nebula.core.Naming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * File partitionnée par clé : chaque événement va dans la voie
+ * {@code hash(key) % lanes}, une {@link EventQueue} bornée servie par son
+ * propre thread consommateur. Les événements d'une même clé sont traités dans
+ * l'ordre de leurs put (même voie, un seul consommateur) ; des clés différentes
+ * avancent en parallèle.
+ * <p>
+ * Contre-pression par voie : un put ne bloque que si SA voie est pleine ; une
+ * voie chaude ne ralentit pas les autres producteurs. {@link #lane(int)} expose
+ * profondeur, pic, puts bloqués et temps de traitement de chaque voie pour
+ * repérer les voies chaudes (clés mal réparties, handler lent).
+ * <p>
+ * Une exception du handler est comptée ({@link LaneStats#failures()}) et la
+ * voie continue. {@link #close()} refuse les nouveaux puts, laisse les voies se
+ * vider puis arrête les consommateurs.
+ */
+public class PartitionedEventQueue<T> implements AutoCloseable {
+
+    static final long CLOSE_CHECK_MS = 50; // réactivité des consommateurs à close()
+
+    /** Compteurs d'une voie, lisibles pendant que la file tourne. */
+    public static final class LaneStats {
+        private final AtomicInteger depth = new AtomicInteger();
+        private volatile int peak; // écrit sous le moniteur de LaneStats
+        private final Metrics enqueued = new Metrics();
+        private final Metrics processed = new Metrics();
+        private final Metrics blockedPuts = new Metrics();
+        private final Metrics failures = new Metrics();
+        private final Histogram handleTime = new Histogram();
+
+        LaneStats() {
+        }
+
+        /** Événements acceptés et pas encore traités. */
+        public int depth() {
+            return depth.get();
+        }
+
+        public int peakDepth() {
+            return peak;
+        }
+
+        public long enqueued() {
+            return enqueued.snapshot();
+        }
+
+        public long processed() {
+            return processed.snapshot();
+        }
+
+        /** puts ayant trouvé la voie pleine (contre-pression subie). */
+        public long blockedPuts() {
+            return blockedPuts.snapshot();
+        }
+
+        /** Exceptions levées par le handler. */
+        public long failures() {
+            return failures.snapshot();
+        }
+
+        /** Durée du handler, en ns. */
+        public Histogram handleTime() {
+            return handleTime;
+        }
+
+        /** Compté avant le dépôt : le consommateur ne voit jamais une profondeur négative. */
+        private void reserve() {
+            int d = depth.incrementAndGet();
+            if (d > peak) {
+                synchronized (this) { // rare : seulement quand le pic monte
+                    if (d > peak)
+                        peak = d;
+                }
+            }
+        }
+    }
+
+    private final List<EventQueue<T>> lanes;
+    private final LaneStats[] stats;
+    private final Thread[] consumers;
+    private final Function<? super T, ?> keyOf;
+    private final Consumer<? super T> handler;
+    private final AtomicInteger inFlight = new AtomicInteger(); // puts entre la vérification de closed et le dépôt
+    private volatile boolean closed;
+
+    /** Voies {@link EventQueueSCC} de laneCapacity éléments. */
+    public PartitionedEventQueue(int lanes, int laneCapacity, Function<? super T, ?> keyOf,
+            Consumer<? super T> handler) {
+        this(lanes, laneCapacity, EventQueueSCC::new, keyOf, handler);
+    }
+
+    /** laneFactory : construit une voie bornée à partir de sa capacité. */
+    public PartitionedEventQueue(int lanes, int laneCapacity, IntFunction<? extends EventQueue<T>> laneFactory,
+            Function<? super T, ?> keyOf, Consumer<? super T> handler) {
+        if (lanes <= 0)
+            throw new IllegalArgumentException("lanes>0 required");
+        if (laneCapacity <= 0)
+            throw new IllegalArgumentException("laneCapacity>0 required");
+        Objects.requireNonNull(laneFactory, "laneFactory");
+        this.keyOf = Objects.requireNonNull(keyOf, "keyOf");
+        this.handler = Objects.requireNonNull(handler, "handler");
+        List<EventQueue<T>> qs = new ArrayList<>(lanes);
+        this.stats = new LaneStats[lanes];
+        this.consumers = new Thread[lanes];
+        ThreadFactory tf = Naming.prefixedFactory("lane", true);
+        for (int i = 0; i < lanes; i++) {
+            qs.add(Objects.requireNonNull(laneFactory.apply(laneCapacity), "lane"));
+            this.stats[i] = new LaneStats();
+        }
+        this.lanes = List.copyOf(qs);
+        for (int i = 0; i < lanes; i++) {
+            final int lane = i;
+            consumers[i] = tf.newThread(() -> consume(lane));
+            consumers[i].start();
+        }
+    }
+
+    /** Bloque tant que la voie de l'événement est pleine. */
+    public void put(T item) throws InterruptedException {
+        deposit(item, Long.MAX_VALUE);
+    }
+
+    /** Attend au plus timeout une place dans la voie de l'événement ; false à l'échéance. */
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        return deposit(item, unit.toNanos(timeout));
+    }
+
+    /** Voie d'un événement (stable pour une même clé). */
+    public int laneOf(T item) {
+        return laneForKey(keyOf.apply(item));
+    }
+
+    public int laneForKey(Object key) {
+        int h = Objects.hashCode(key);
+        h ^= (h >>> 16); // étale les bits hauts, comme HashMap
+        return (h & 0x7fffffff) % lanes.size();
+    }
+
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    public LaneStats lane(int i) {
+        return stats[i];
+    }
+
+    /** Voie la plus chargée en ce moment (profondeur, puis puts bloqués). */
+    public int hottestLane() {
+        int best = 0;
+        for (int i = 1; i < stats.length; i++) {
+            LaneStats s = stats[i], b = stats[best];
+            if (s.depth() > b.depth() || (s.depth() == b.depth() && s.blockedPuts() > b.blockedPuts()))
+                best = i;
+        }
+        return best;
+    }
+
+    /** Résumé lisible : une ligne par voie. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stats.length; i++) {
+            LaneStats s = stats[i];
+            sb.append(String.format("lane %d depth=%d peak=%d processed=%d blocked=%d failures=%d handle p99=%dus%n",
+                    i, s.depth(), s.peakDepth(), s.processed(), s.blockedPuts(), s.failures(),
+                    s.handleTime().percentile(99) / 1000));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Refuse les nouveaux puts, traite ce qui est en voie, puis arrête les
+     * consommateurs. Interrompu pendant l'attente : rend la main, drapeau
+     * d'interruption restauré ; les voies finissent de se vider seules.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (Thread t : consumers)
+                t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- interne ----------
+
+    /** nanos Long.MAX_VALUE : sans limite. */
+    private boolean deposit(T item, long nanos) throws InterruptedException {
+        if (item == null)
+            throw new NullPointerException("item");
+        int lane = laneOf(item);
+        EventQueue<T> q = lanes.get(lane);
+        LaneStats s = stats[lane];
+        inFlight.incrementAndGet();
+        try {
+            ensureOpen();
+            s.reserve();
+            boolean ok = false;
+            try {
+                if (!(ok = q.offer(item))) {
+                    s.blockedPuts.mark(); // voie pleine : contre-pression
+                    if (nanos == Long.MAX_VALUE) {
+                        q.put(item);
+                        ok = true;
+                    } else {
+                        ok = q.offer(item, nanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            } finally {
+                if (ok)
+                    s.enqueued.mark();
+                else
+                    s.depth.decrementAndGet();
+            }
+            return ok;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void consume(int lane) {
+        EventQueue<T> q = lanes.get(lane);
+        LaneStats s = stats[lane];
+        try {
+            for (;;) {
+                T x = q.poll(CLOSE_CHECK_MS, TimeUnit.MILLISECONDS);
+                if (x == null) {
+                    // inFlight lu avant size : un put non compté ici verra closed
+                    if (closed && inFlight.get() == 0 && q.size() == 0)
+                        return;
+                    continue;
+                }
+                s.depth.decrementAndGet();
+                long t0 = System.nanoTime();
+                try {
+                    handler.accept(x);
+                } catch (RuntimeException e) {
+                    s.failures.mark();
+                } finally {
+                    s.handleTime.record(System.nanoTime() - t0);
+                    s.processed.mark();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // thread de la file : on s'arrête
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("queue closed");
+    }
+}
@@ -0,0 +1,162 @@
+package nebula.queue;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Stratégies d'attente fournies, de la plus réactive (et gourmande) à la plus
+ * économe :
+ * <ul>
+ * <li>{@link #busySpin()} : boucle active, latence minimale, un cœur à 100 %.</li>
+ * <li>{@link #spinThenYield()} : spin court puis yield ; cède le cœur sans dormir.</li>
+ * <li>{@link #spinThenPark(long, TimeUnit)} : spin, yield puis parkNanos à pas
+ * croissant ; aucun coût côté producteur, latence bornée par le pas maximal.</li>
+ * <li>{@link #blocking()} : spin, yield puis sommeil sur condition, réveillé par
+ * le producteur ; CPU nul au repos, un changement de contexte par réveil, une
+ * barrière complète par publication côté producteur.</li>
+ * </ul>
+ * Les paliers spin / yield sont partagés avec les attentes des producteurs de
+ * {@link EventQueueSpsc} et {@link EventQueueMpmc}.
+ */
+public final class WaitStrategies {
+
+    static final int SPINS = 128;
+    static final int YIELDS = 16;
+    /** Park maximal des producteurs sur file pleine : rattrape un réveil manqué (libération sans barrière). */
+    static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private WaitStrategies() {
+    }
+
+    public static WaitStrategy busySpin() {
+        return new WaitStrategy() {
+            @Override
+            public void idle(int round, long maxNanos, BooleanSupplier stillEmpty) throws InterruptedException {
+                Thread.onSpinWait();
+                checkInterrupt();
+            }
+
+            @Override
+            public void signal() {
+            }
+        };
+    }
+
+    public static WaitStrategy spinThenYield() {
+        return new WaitStrategy() {
+            @Override
+            public void idle(int round, long maxNanos, BooleanSupplier stillEmpty) throws InterruptedException {
+                if (round < SPINS)
+                    Thread.onSpinWait();
+                else
+                    Thread.yield();
+                checkInterrupt();
+            }
+
+            @Override
+            public void signal() {
+            }
+        };
+    }
+
+    /** Pas de park doublé à chaque tour (1µs, 2µs, ...) jusqu'à maxPark. */
+    public static WaitStrategy spinThenPark(long maxPark, TimeUnit unit) {
+        final long max = unit.toNanos(maxPark);
+        if (max <= 0)
+            throw new IllegalArgumentException("maxPark>0 required");
+        return new WaitStrategy() {
+            @Override
+            public void idle(int round, long maxNanos, BooleanSupplier stillEmpty) throws InterruptedException {
+                if (round < SPINS) {
+                    Thread.onSpinWait();
+                } else if (round < SPINS + YIELDS) {
+                    Thread.yield();
+                } else {
+                    int shift = Math.min(round - SPINS - YIELDS, 20);
+                    LockSupport.parkNanos(this, Math.min(Math.min(1000L << shift, max), maxNanos));
+                }
+                checkInterrupt();
+            }
+
+            @Override
+            public void signal() {
+            }
+        };
+    }
+
+    public static WaitStrategy spinThenPark() {
+        return spinThenPark(1, TimeUnit.MILLISECONDS);
+    }
+
+    public static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    /**
+     * Sommeil sur condition ; le compteur évite au producteur de prendre le
+     * verrou pour rien. Poignée de main de Dekker : le consommateur s'annonce,
+     * barrière complète, revérifie ; le producteur publie, barrière complète,
+     * lit le compteur. L'un des deux voit forcément l'écriture de l'autre : pas
+     * de signal manqué, l'attente n'a pas besoin d'échéance.
+     */
+    private static final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private volatile int waiters; // modifié sous verrou, lu sans
+
+        @Override
+        public void idle(int round, long maxNanos, BooleanSupplier stillEmpty) throws InterruptedException {
+            if (round < SPINS) {
+                Thread.onSpinWait();
+            } else if (round < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                lock.lockInterruptibly();
+                try {
+                    waiters++;
+                    VarHandle.fullFence(); // annonce visible avant la revérification
+                    try {
+                        if (stillEmpty.getAsBoolean()) { // revérifie après s'être annoncé
+                            if (maxNanos == Long.MAX_VALUE)
+                                published.await();
+                            else
+                                published.awaitNanos(maxNanos);
+                        }
+                    } catch (InterruptedException e) {
+                        published.signal(); // un signal reçu en même temps passe à un autre
+                        throw e;
+                    } finally {
+                        waiters--;
+                    }
+                    if (Thread.currentThread().isInterrupted())
+                        published.signal(); // réveillé puis interrompu : on ne consommera pas
+                } finally {
+                    lock.unlock();
+                }
+            }
+            checkInterrupt();
+        }
+
+        @Override
+        public void signal() {
+            VarHandle.fullFence(); // publication visible avant la lecture du compteur
+            if (waiters > 0) {
+                lock.lock();
+                try {
+                    published.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static void checkInterrupt() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+    }
+}
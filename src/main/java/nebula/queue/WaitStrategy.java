@@ -0,0 +1,23 @@
+package nebula.queue;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Comment un consommateur attend qu'une file non bloquante se remplisse :
+ * compromis latence de réveil / CPU brûlé. Une instance par file (elle peut
+ * porter un état : verrou, compteur d'attente). Fabriques dans
+ * {@link WaitStrategies}.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Un tour d'attente, appelé en boucle tant que la file est vide.
+     * round : 0, 1, 2... depuis le début de cette attente ; maxNanos : borne de
+     * sommeil (reste d'un délai, ou Long.MAX_VALUE). stillEmpty doit être
+     * revérifié juste avant de s'endormir.
+     */
+    void idle(int round, long maxNanos, BooleanSupplier stillEmpty) throws InterruptedException;
+
+    /** Appelé par le producteur après chaque publication : réveille un consommateur endormi. */
+    void signal();
+}
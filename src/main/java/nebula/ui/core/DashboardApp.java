@@ -4,6 +4,7 @@ import nebula.alloc.ResourcePool;
 import nebula.alloc.ResourcePoolFifo;
 import nebula.queue.EventQueue;
 import nebula.queue.EventQueueSCC;
+import nebula.queue.EventQueueTwoLock;
 import nebula.rate.Parking;
 import nebula.rw.RW;
 import nebula.rw.RWFair;
@@ -193,6 +194,10 @@ public class DashboardApp {
             top.add(tfProd);
             top.add(new JLabel("Cons:"));
             top.add(tfCons);
+            JCheckBox cbFair = new JCheckBox("Fair lock");
+            JCheckBox cbTwoLock = new JCheckBox("Two-lock");
+            top.add(cbFair);
+            top.add(cbTwoLock);
 
             JButton start = btn("Start", () -> {
                 if (running.get())
@@ -202,12 +207,14 @@ public class DashboardApp {
                     int np = Math.max(1, Integer.parseInt(tfProd.getText().trim()));
                     int nc = Math.max(1, Integer.parseInt(tfCons.getText().trim()));
 
-                    q = new EventQueueSCC<>(cap);
+                    boolean fair = cbFair.isSelected();
+                    q = cbTwoLock.isSelected() ? new EventQueueTwoLock<>(cap, fair) : new EventQueueSCC<>(cap, fair);
                     bar.setMaximum(cap);
                     running.set(true);
                     exec = Executors.newFixedThreadPool(np + nc);
                     log.setText("");
-                    log(log, "[Start] EventQueueSCC cap=" + cap + " P=" + np + " C=" + nc);
+                    log(log, "[Start] " + q.getClass().getSimpleName() + " cap=" + cap + " P=" + np + " C=" + nc
+                            + (fair ? " fair" : ""));
 
                     // producteurs
                     for (int p = 0; p < np; p++) {
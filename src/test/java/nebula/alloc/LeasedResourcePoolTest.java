@@ -0,0 +1,70 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedResourcePoolTest {
+
+    @Test
+    void released_lease_does_not_leak() throws InterruptedException {
+        try (LeasedResourcePool leases = new LeasedResourcePool(new ResourcePoolFifo(2), 5, TimeUnit.MILLISECONDS)) {
+            try (var l = leases.lease(2, 1, TimeUnit.SECONDS)) {
+                assertEquals(0, leases.pool().available());
+                assertEquals(1, leases.activeLeases());
+            }
+            assertEquals(2, leases.pool().available());
+            assertEquals(0, leases.activeLeases());
+            assertEquals(0, leases.leakedLeases());
+        }
+    }
+
+    @Test
+    void expired_lease_is_reclaimed_and_handed_to_waiter() throws InterruptedException {
+        try (LeasedResourcePool leases = new LeasedResourcePool(new ResourcePoolFifo(2), 5, TimeUnit.MILLISECONDS)) {
+            var dead = leases.lease(2, 50, TimeUnit.MILLISECONDS); // jamais rendu : worker "mort"
+
+            AtomicInteger got = new AtomicInteger(0);
+            Thread waiter = new Thread(() -> {
+                try {
+                    leases.pool().acquire(1); // bloque jusqu'au reclaim
+                    got.set(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.start();
+            Thread.sleep(20);
+            assertEquals(0, got.get());
+
+            waiter.join(1000);
+            assertEquals(1, got.get(), "permis récupérés remis au waiter");
+            assertTrue(dead.isExpired());
+            assertEquals(1, leases.leakedLeases());
+            assertEquals(2, leases.reclaimedPermits());
+
+            dead.close(); // rendu tardif : pas de double libération
+            assertEquals(1, leases.lateReleases());
+            assertEquals(1, leases.pool().available());
+        }
+    }
+
+    @Test
+    void renew_pushes_back_the_deadline() throws InterruptedException {
+        try (LeasedResourcePool leases = new LeasedResourcePool(new ResourcePoolDirect(1), 5, TimeUnit.MILLISECONDS)) {
+            var l = leases.lease(1, 60, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 4; i++) {
+                Thread.sleep(30);
+                assertTrue(l.renew(60, TimeUnit.MILLISECONDS));
+            }
+            assertFalse(l.isExpired());
+            assertNull(leases.tryLease(1, 1, TimeUnit.SECONDS));
+            l.close();
+            assertFalse(l.renew(60, TimeUnit.MILLISECONDS));
+            assertEquals(0, leases.leakedLeases());
+        }
+    }
+}
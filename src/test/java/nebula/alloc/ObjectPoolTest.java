@@ -0,0 +1,168 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    @Test
+    void same_thread_reuses_object_without_creating() throws InterruptedException {
+        AtomicInteger seq = new AtomicInteger(0);
+        ObjectPool<StringBuilder> pool = new ObjectPool<>(new ResourcePoolFifo(2),
+                () -> new StringBuilder("obj" + seq.incrementAndGet()));
+
+        StringBuilder first;
+        try (var p = pool.borrow()) {
+            first = p.get();
+        }
+        for (int i = 0; i < 100; i++) {
+            try (var p = pool.borrow()) {
+                assertSame(first, p.get(), "le magasin local rend le même objet");
+            }
+        }
+        assertEquals(1, pool.created());
+    }
+
+    @Test
+    void admission_bounds_live_objects_and_waiter_steals_from_other_thread() throws InterruptedException {
+        ResourcePool admission = new ResourcePoolFifo(2);
+        ObjectPool<Object> pool = new ObjectPool<>(admission, Object::new);
+
+        var a = pool.borrow();
+        var b = pool.borrow();
+        assertEquals(0, admission.available());
+        assertNull(pool.tryBorrow(30, TimeUnit.MILLISECONDS), "capacité atteinte");
+
+        // rendu par un AUTRE thread : l'objet finit dans le magasin de ce thread
+        Thread other = new Thread(b::close);
+        other.start();
+        other.join();
+
+        var c = pool.tryBorrow(500, TimeUnit.MILLISECONDS);
+        assertNotNull(c, "l'emprunteur vole dans le magasin de l'autre thread");
+        assertSame(b.get(), c.get());
+        assertEquals(2, pool.created());
+        a.close();
+        c.close();
+    }
+
+    @Test
+    void invalid_objects_are_destroyed_and_replaced() throws InterruptedException {
+        AtomicInteger destroyed = new AtomicInteger(0);
+        AtomicReference<Object> broken = new AtomicReference<>();
+        ResourcePool admission = new ResourcePoolFifo(1);
+        ObjectPool<Object> pool = new ObjectPool<>(admission, Object::new,
+                o -> o != broken.get(), o -> destroyed.incrementAndGet(), 4);
+
+        var p = pool.borrow();
+        broken.set(p.get());
+        p.close();
+
+        try (var q = pool.borrow()) {
+            assertNotSame(broken.get(), q.get());
+        }
+        assertEquals(1, destroyed.get());
+        assertEquals(2, pool.created());
+        assertEquals(0, admission.available(), "un seul objet vivant, inactif");
+    }
+
+    @Test
+    void idle_eviction_releases_permits() throws InterruptedException {
+        ResourcePool admission = new ResourcePoolFifo(3);
+        ObjectPool<Object> pool = new ObjectPool<>(admission, Object::new, o -> true, o -> {
+        }, 1);
+
+        var a = pool.borrow();
+        var b = pool.borrow();
+        a.close(); // magasin local (taille 1)
+        b.close(); // pile partagée
+        assertEquals(2, pool.idleCount());
+        assertEquals(1, admission.available());
+
+        assertEquals(0, pool.evictIdle(1, TimeUnit.MINUTES));
+        Thread.sleep(20);
+        assertEquals(2, pool.evictIdle(10, TimeUnit.MILLISECONDS));
+        assertEquals(0, pool.idleCount());
+        assertEquals(3, admission.available());
+        assertEquals(2, pool.destroyed());
+    }
+
+    @Test
+    void second_close_of_same_borrow_gives_back_once() throws InterruptedException {
+        ResourcePool admission = new ResourcePoolFifo(2);
+        ObjectPool<Object> pool = new ObjectPool<>(admission, Object::new);
+
+        var p = pool.borrow();
+        Thread t1 = new Thread(p::close), t2 = new Thread(p::close);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        assertEquals(1, pool.idleCount(), "rendu une seule fois");
+
+        var a = pool.borrow();
+        var b = pool.borrow();
+        assertNotSame(a.get(), b.get());
+        assertEquals(2, pool.created());
+    }
+
+    @Test
+    void magazine_of_terminated_thread_is_drained_and_forgotten() throws InterruptedException {
+        ObjectPool<Object> pool = new ObjectPool<>(new ResourcePoolFifo(8), Object::new);
+        pool.borrow().close(); // magasin du thread de test
+        for (int i = 0; i < 5; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    pool.borrow().close(); // l'objet reste dans le magasin du thread
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            t.start();
+            t.join();
+        }
+        assertEquals(0, pool.evictIdle(1, TimeUnit.MINUTES));
+        assertEquals(1, pool.magazineCount(), "seul le thread vivant reste");
+        int idle = pool.idleCount();
+        assertTrue(idle >= 1, "objets des morts gardés dans la pile partagée");
+        for (int i = 0; i < idle; i++)
+            pool.borrow(); // repris sans création
+        assertEquals(idle, pool.created());
+    }
+
+    @Test
+    void objects_returned_while_closing_are_all_destroyed() throws InterruptedException {
+        for (int trial = 0; trial < 50; trial++) {
+            ResourcePool admission = new ResourcePoolFifo(8);
+            ObjectPool<Object> pool = new ObjectPool<>(admission, Object::new);
+            List<Thread> users = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread th = new Thread(() -> {
+                    try {
+                        for (;;)
+                            pool.borrow().close(); // rendu pendant que close() vide le pool
+                    } catch (IllegalStateException e) {
+                        // fermé : plus d'emprunt
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                users.add(th);
+                th.start();
+            }
+            Thread.sleep(1);
+            pool.close();
+            for (Thread th : users)
+                th.join(1000);
+            assertEquals(pool.created(), pool.destroyed(), "essai " + trial);
+            assertEquals(8, admission.available(), "tous les permis rendus");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package nebula.alloc;
+
+import nebula.core.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolStatsTest {
+
+    @Test
+    void plain_pools_are_not_instrumented() {
+        assertNull(new ResourcePoolFifo(2).stats());
+        assertNull(new ResourcePoolDirect(2).stats());
+    }
+
+    @Test
+    void fifo_records_wait_hold_and_depth_by_k() throws InterruptedException {
+        ResourcePoolFifo pool = new ResourcePoolFifo(4, true);
+        PoolStats stats = pool.stats();
+
+        pool.acquire(4);
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.acquire(2);
+                Thread.sleep(5);
+                pool.release(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        while (stats.queueDepth() == 0)
+            Thread.onSpinWait();
+        Thread.sleep(20);
+        pool.release(4);
+        waiter.join(1000);
+
+        assertEquals(0, stats.queueDepth());
+        assertEquals(1, stats.peakQueueDepth());
+
+        Histogram w2 = stats.waitTime(2);
+        assertEquals(1, w2.count());
+        assertTrue(w2.max() >= TimeUnit.MILLISECONDS.toNanos(20), "attente ≥ 20ms");
+        assertEquals(1, stats.waitTime(4).count());
+        assertEquals(1, stats.waitTime(3).count(), "2 et 3 partagent la classe de k");
+
+        assertTrue(stats.holdTime(4).percentile(50) >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(stats.holdTime(2).percentile(99) >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(0, stats.unmatchedReleases());
+        assertTrue(stats.summary().contains("k=2..3"));
+    }
+
+    @Test
+    void direct_counts_timeouts_and_waiting_threads() throws InterruptedException {
+        ResourcePoolDirect pool = new ResourcePoolDirect(1, true);
+        PoolStats stats = pool.stats();
+
+        pool.acquire(1);
+        assertFalse(pool.tryAcquire(1, 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, stats.timeouts());
+        assertEquals(1, stats.peakQueueDepth());
+        assertEquals(0, stats.queueDepth());
+
+        pool.release(1);
+        assertEquals(1, stats.holdTime(1).count());
+    }
+
+    @Test
+    void release_from_another_thread_is_unmatched() throws InterruptedException {
+        ResourcePoolFifo pool = new ResourcePoolFifo(1, true);
+        pool.acquire(1);
+        Thread other = new Thread(() -> pool.release(1));
+        other.start();
+        other.join(1000);
+        assertEquals(1, pool.stats().unmatchedReleases());
+        assertEquals(0, pool.stats().holdTime(1).count());
+    }
+
+    @Test
+    void cross_thread_releases_leave_no_stale_entry_for_later_holds() throws InterruptedException {
+        ResourcePoolFifo pool = new ResourcePoolFifo(1, true);
+        PoolStats stats = pool.stats();
+        for (int i = 0; i < 20; i++) { // plus que la pile par thread
+            pool.acquire(1);
+            Thread other = new Thread(() -> pool.release(1));
+            other.start();
+            other.join(1000);
+        }
+        Thread.sleep(30); // les entrées périmées vieillissent
+
+        pool.acquire(1);
+        pool.release(1); // même thread : détention quasi nulle
+        assertEquals(20, stats.unmatchedReleases());
+        assertEquals(1, stats.holdTime(1).count());
+        assertTrue(stats.holdTime(1).max() < TimeUnit.MILLISECONDS.toNanos(30),
+                "apparié à l'acquisition courante, pas à une entrée périmée");
+    }
+
+    @Test
+    void permit_carries_its_grant_time_across_threads() throws Exception {
+        ResourcePoolFifo pool = new ResourcePoolFifo(1, true);
+        Permit p = pool.acquireAsync(1).get(1, TimeUnit.SECONDS);
+        Thread.sleep(20);
+        Thread other = new Thread(p::close);
+        other.start();
+        other.join(1000);
+
+        assertEquals(0, pool.stats().unmatchedReleases());
+        assertEquals(1, pool.stats().holdTime(1).count());
+        assertTrue(pool.stats().holdTime(1).max() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void acquisitions_beyond_the_hold_stack_count_as_unmatched() throws InterruptedException {
+        ResourcePoolDirect pool = new ResourcePoolDirect(32, true);
+        for (int i = 0; i < 20; i++)
+            pool.acquire(1);
+        for (int i = 0; i < 20; i++)
+            pool.release(1);
+        assertEquals(16, pool.stats().holdTime(1).count());
+        assertEquals(4, pool.stats().unmatchedReleases());
+    }
+
+    @Test
+    void histogram_buckets_bound_relative_error() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 1000; v++)
+            h.record(v * 1000);
+        long p50 = h.percentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50=" + p50);
+        assertEquals(1_000_000, h.percentile(100));
+        assertEquals(1000, h.count());
+        assertEquals(500_500.0, h.mean(), 1e-6);
+    }
+}
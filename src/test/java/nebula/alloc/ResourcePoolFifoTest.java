@@ -4,7 +4,14 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,6 +113,252 @@ class ResourcePoolFifoTest {
         assertTrue(serviceOrder.contains(3));
     }
 
+    @Test
+    void interrupted_head_waiter_unblocks_the_ones_behind() throws InterruptedException {
+        // t1 (k=3) est en tête et bouche la file ; t2 (k=1) attend derrière
+        ResourcePool p = new ResourcePoolFifo(3);
+        p.acquire(2); // avail=1 : t2 pourrait passer, mais pas devant t1
+
+        AtomicInteger got2 = new AtomicInteger(0);
+        Thread t1 = new Thread(() -> {
+            try {
+                p.acquire(3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread t2 = new Thread(() -> {
+            try {
+                p.acquire(1);
+                got2.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t1.start();
+        Thread.sleep(30);
+        t2.start();
+        Thread.sleep(30);
+        assertEquals(0, got2.get(), "FIFO stricte : t2 ne double pas t1");
+
+        t1.interrupt(); // annulation O(1) : t2 devient tête et est servi
+        t1.join(500);
+        t2.join(500);
+        assertEquals(1, got2.get());
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void timed_out_waiter_leaves_queue_without_blocking_followers() throws InterruptedException {
+        ResourcePool p = new ResourcePoolFifo(3);
+        p.acquire(2); // avail=1
+
+        // t1 (k=3) en tête abandonne après 80 ms ; t2 (k=1) derrière doit alors passer
+        AtomicInteger got1 = new AtomicInteger(-1);
+        AtomicInteger got2 = new AtomicInteger(0);
+        Thread t1 = new Thread(() -> {
+            try {
+                got1.set(p.tryAcquire(3, 80, TimeUnit.MILLISECONDS) ? 1 : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread t2 = new Thread(() -> {
+            try {
+                p.acquire(1);
+                got2.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t1.start();
+        Thread.sleep(20);
+        t2.start();
+
+        t1.join(500);
+        t2.join(500);
+        assertEquals(0, got1.get(), "t1 doit expirer");
+        assertEquals(1, got2.get(), "t2 servi dès le départ de t1");
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void tryAcquire_does_not_barge_past_waiters() throws InterruptedException {
+        ResourcePool p = new ResourcePoolFifo(2);
+        assertTrue(p.tryAcquire(2));
+        assertFalse(p.tryAcquire(1), "non bloquant doit échouer si plein");
+
+        Thread big = new Thread(() -> {
+            try {
+                p.acquire(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        big.start();
+        Thread.sleep(30);
+        p.release(1);
+        assertFalse(p.tryAcquire(1), "un permis libre, mais quelqu'un attend devant");
+        p.release(1);
+        big.join(500);
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void grow_serves_waiters_in_fifo_order_and_shrink_drains_lazily() throws InterruptedException {
+        ResourcePoolFifo p = new ResourcePoolFifo(2);
+        p.acquire(2);
+
+        List<Integer> order = new ArrayList<>();
+        Thread t1 = new Thread(() -> acquireAndRecord(p, 1, 2, order));
+        Thread t2 = new Thread(() -> acquireAndRecord(p, 2, 1, order));
+        t1.start();
+        Thread.sleep(20);
+        t2.start();
+        Thread.sleep(20);
+
+        p.setCapacity(4); // +2 : la tête t1 (k=2) est servie, t2 (k=1) attend son tour
+        t1.join(500);
+        Thread.sleep(20);
+        assertTrue(t2.isAlive(), "t2 derrière t1 : rien pour lui");
+        p.setCapacity(5); // +1 : t2
+        t2.join(500);
+        assertEquals(List.of(1, 2), order);
+        assertEquals(0, p.available());
+
+        // réduction sous la charge : rien n'est repris, la dette se résorbe aux libérations
+        p.setCapacity(2);
+        assertEquals(2, p.capacity());
+        assertEquals(-3, p.available());
+        p.release(2);
+        p.release(2);
+        assertEquals(1, p.available());
+        assertFalse(p.tryAcquire(2));
+        p.release(1);
+        assertEquals(2, p.available());
+        assertThrows(IllegalStateException.class, () -> p.release(1), "sur-libération toujours détectée");
+    }
+
+    @Test
+    void shrink_fails_waiters_that_no_longer_fit() throws InterruptedException {
+        ResourcePoolFifo p = new ResourcePoolFifo(4);
+        p.acquire(1);
+
+        AtomicInteger failed = new AtomicInteger(0);
+        Thread big = new Thread(() -> {
+            try {
+                p.acquire(4);
+            } catch (IllegalStateException e) {
+                failed.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        big.start();
+        Thread.sleep(30);
+        p.setCapacity(2);
+        big.join(500);
+        assertEquals(1, failed.get());
+        p.release(1);
+        assertEquals(2, p.available());
+    }
+
+    @Test
+    void async_acquire_completes_in_fifo_order_with_blocking_waiters() throws Exception {
+        ResourcePoolFifo p = new ResourcePoolFifo(2);
+        p.acquire(2);
+
+        List<Integer> order = new ArrayList<>();
+        CompletableFuture<Permit> f1 = p.acquireAsync(2);
+        f1.thenRun(() -> {
+            synchronized (order) {
+                order.add(1);
+            }
+        });
+        Thread t2 = new Thread(() -> acquireAndRecord(p, 2, 1, order));
+        t2.start();
+        Thread.sleep(30);
+        CompletableFuture<Permit> f3 = p.acquireAsync(1);
+        assertFalse(f1.isDone());
+
+        p.release(2); // f1 servi (complété sur ce thread), t2 et f3 attendent
+        assertTrue(f1.isDone());
+        Permit permit1 = f1.get();
+        assertEquals(2, permit1.permits());
+        assertFalse(f3.isDone());
+
+        permit1.close(); // t2 puis f3
+        permit1.close(); // idempotent
+        t2.join(500);
+        assertEquals(1, f3.get(500, TimeUnit.MILLISECONDS).permits());
+        assertEquals(List.of(1, 2), order);
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void cancelling_async_waiter_removes_it_from_queue() throws Exception {
+        ResourcePoolFifo p = new ResourcePoolFifo(3);
+        p.acquire(2);
+
+        CompletableFuture<Permit> big = p.acquireAsync(3);
+        CompletableFuture<Permit> small = p.acquireAsync(1);
+        assertFalse(small.isDone(), "FIFO : small attend derrière big");
+
+        assertTrue(big.cancel(false)); // big quitte la file : small passe aussitôt
+        assertTrue(small.isDone());
+        small.get().close();
+        p.release(2);
+        assertEquals(3, p.available());
+    }
+
+    @Test
+    void async_waiter_completed_from_outside_leaves_the_queue() throws Exception {
+        ResourcePoolFifo p = new ResourcePoolFifo(3);
+        p.acquire(3);
+        CompletableFuture<Permit> failed = p.acquireAsync(3);
+        CompletableFuture<Permit> timedOut = p.acquireAsync(3);
+        timedOut.orTimeout(20, TimeUnit.MILLISECONDS);
+        CompletableFuture<Permit> small = p.acquireAsync(1);
+
+        assertTrue(failed.completeExceptionally(new RuntimeException("abandon")));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> timedOut.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+
+        p.release(1); // plus personne devant : small passe
+        assertEquals(1, small.get(500, TimeUnit.MILLISECONDS).permits());
+        small.get().close();
+        p.release(2);
+        assertEquals(3, p.available(), "aucun permis remis aux futures abandonnés");
+    }
+
+    @Test
+    void async_completion_runs_on_executor_and_late_cancel_returns_permits() throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            ResourcePoolFifo p = new ResourcePoolFifo(1, exec);
+            p.acquire(1);
+            CountDownLatch hold = new CountDownLatch(1);
+            exec.execute(() -> {
+                try {
+                    hold.await(); // bloque l'exécuteur : la complétion sera en retard
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            CompletableFuture<Permit> f = p.acquireAsync(1);
+            p.release(1); // servi sous verrou, complétion confiée à l'exécuteur
+            assertTrue(f.cancel(false), "annulé avant la complétion");
+            hold.countDown();
+
+            // la complétion échoue (annulé) : le permis est rendu au pool
+            CompletableFuture<Permit> g = p.acquireAsync(1);
+            assertEquals(1, g.get(500, TimeUnit.MILLISECONDS).permits());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
     // ---------- helpers ----------
     private static void clientAcquireThenRecordThenSleepThenRelease(
             ResourcePool p, int id, int k, List<Integer> order,
@@ -124,4 +377,15 @@ class ResourcePoolFifoTest {
             p.release(k);
         }
     }
+
+    private static void acquireAndRecord(ResourcePool p, int id, int k, List<Integer> order) {
+        try {
+            p.acquire(k);
+            synchronized (order) {
+                order.add(id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
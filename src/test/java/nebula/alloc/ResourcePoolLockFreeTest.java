@@ -0,0 +1,111 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolLockFreeTest {
+
+    @Test
+    void basic_capacity_and_over_release() throws InterruptedException {
+        ResourcePool p = new ResourcePoolLockFree(3);
+        assertEquals(3, p.capacity());
+        assertEquals(3, p.available());
+
+        p.acquire(2);
+        assertEquals(1, p.available());
+        p.release(2);
+        assertEquals(3, p.available());
+
+        // sur-libération détectée, l'état reste cohérent
+        assertThrows(IllegalStateException.class, () -> p.release(1));
+        assertEquals(3, p.available());
+        assertThrows(IllegalArgumentException.class, () -> p.acquire(4));
+    }
+
+    @Test
+    void blocks_when_empty_and_resumes_after_release() throws InterruptedException {
+        ResourcePool p = new ResourcePoolLockFree(2);
+        p.acquire(2);
+
+        AtomicInteger step = new AtomicInteger(0);
+        Thread t = new Thread(() -> {
+            try {
+                p.acquire(1); // doit BLOQUER
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+
+        p.release(1);
+        t.join(500);
+        assertEquals(1, step.get());
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void interrupted_waiter_leaves_queue() throws InterruptedException {
+        ResourcePool p = new ResourcePoolLockFree(1);
+        p.acquire(1);
+
+        AtomicInteger interrupted = new AtomicInteger(0);
+        Thread t = new Thread(() -> {
+            try {
+                p.acquire(1);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        });
+        t.start();
+        Thread.sleep(50);
+        t.interrupt();
+        t.join(500);
+        assertEquals(1, interrupted.get());
+
+        // la file ne doit pas rester bouchée par le thread annulé
+        p.release(1);
+        p.acquire(1);
+        assertEquals(0, p.available());
+    }
+
+    @Test
+    void never_exceeds_capacity_under_contention() throws InterruptedException {
+        ResourcePool p = new ResourcePoolLockFree(3);
+        AtomicInteger inUse = new AtomicInteger(0);
+        AtomicInteger peak = new AtomicInteger(0);
+
+        int threads = 8;
+        Thread[] ts = new Thread[threads];
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            final int k = 1 + (i % 2);
+            ts[i] = new Thread(() -> {
+                try {
+                    go.await();
+                    for (int n = 0; n < 2000; n++) {
+                        p.acquire(k);
+                        peak.accumulateAndGet(inUse.addAndGet(k), Math::max);
+                        inUse.addAndGet(-k);
+                        p.release(k);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[i].start();
+        }
+        go.countDown();
+        for (Thread t : ts)
+            t.join();
+
+        assertTrue(peak.get() <= 3, "jamais plus de permis distribués que la capacité");
+        assertEquals(3, p.available());
+    }
+}
@@ -0,0 +1,140 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolMappedTest {
+
+    // pid qui ne peut pas exister : simule un processus mort
+    private static final long DEAD_PID = Long.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void two_instances_share_one_capacity() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped a = new ResourcePoolMapped(f, 3);
+                ResourcePoolMapped b = new ResourcePoolMapped(f, 3)) {
+            a.acquire(2);
+            assertEquals(1, b.available());
+            assertFalse(b.tryAcquire(2));
+            assertTrue(b.tryAcquire(1));
+            assertEquals(0, a.available());
+
+            AtomicInteger got = new AtomicInteger(0);
+            Thread waiter = new Thread(() -> {
+                try {
+                    b.acquire(2);
+                    got.set(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.start();
+            Thread.sleep(20);
+            assertEquals(0, got.get());
+            a.release(2); // libéré par une instance, pris par l'autre
+            waiter.join(1000);
+            assertEquals(1, got.get());
+            assertEquals(3, b.held());
+            assertEquals(0, a.held());
+        }
+    }
+
+    @Test
+    void capacity_mismatch_is_rejected() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped a = new ResourcePoolMapped(f, 2)) {
+            assertThrows(IllegalArgumentException.class, () -> new ResourcePoolMapped(f, 5));
+        }
+    }
+
+    @Test
+    void release_after_close_is_rejected() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped other = new ResourcePoolMapped(f, 2)) {
+            ResourcePoolMapped a = new ResourcePoolMapped(f, 2);
+            other.acquire(1); // avail sous cap : le contrôle de débordement ne suffit pas
+            a.acquire(1);
+            a.close(); // rend le permis détenu
+            assertEquals(1, other.available());
+            assertThrows(IllegalStateException.class, () -> a.release(1));
+            assertEquals(1, other.available(), "rien rendu deux fois");
+        }
+    }
+
+    @Test
+    void permits_of_dead_process_are_reclaimed() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped live = new ResourcePoolMapped(f, 2)) {
+            ResourcePoolMapped dead = new ResourcePoolMapped(f, 2, DEAD_PID, 0L);
+            dead.acquire(2); // jamais rendu : le processus "meurt"
+
+            assertTrue(live.tryAcquire(2, 1, TimeUnit.SECONDS), "permis du mort récupérés");
+            assertEquals(2, live.held());
+            live.release(2);
+            assertEquals(2, live.available());
+            dead.close(); // slot déjà récupéré : ne rend rien de plus
+            assertEquals(2, live.available());
+        }
+    }
+
+    @Test
+    void timed_out_waiter_does_not_block_the_queue() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped a = new ResourcePoolMapped(f, 2);
+                ResourcePoolMapped b = new ResourcePoolMapped(f, 2);
+                ResourcePoolMapped c = new ResourcePoolMapped(f, 2)) {
+            a.acquire(2);
+            assertFalse(b.tryAcquire(1, 20, TimeUnit.MILLISECONDS)); // ticket abandonné
+            a.release(2);
+            assertTrue(c.tryAcquire(2, 1, TimeUnit.SECONDS), "le ticket abandonné est sauté");
+            c.release(2);
+            assertTrue(b.tryAcquire(1, 1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void abandoned_ticket_then_non_blocking_try_acquire_succeeds() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped a = new ResourcePoolMapped(f, 2);
+                ResourcePoolMapped b = new ResourcePoolMapped(f, 2);
+                ResourcePoolMapped c = new ResourcePoolMapped(f, 2)) {
+            a.acquire(2);
+            Thread head = new Thread(() -> {
+                try {
+                    c.acquire(1); // ticket en tête, vivant
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            head.start();
+            Thread.sleep(20);
+            assertFalse(b.tryAcquire(1, 20, TimeUnit.MILLISECONDS)); // abandonné, pas en tête
+            a.release(2);
+            head.join(1000);
+            c.release(1); // la tête est maintenant le ticket abandonné
+            assertEquals(2, a.available());
+            assertTrue(a.tryAcquire(1), "le ticket abandonné est sauté sans acquire bloquant");
+            assertTrue(b.tryAcquire(1));
+        }
+    }
+
+    @Test
+    void close_returns_held_permits() throws Exception {
+        Path f = dir.resolve("seats");
+        try (ResourcePoolMapped a = new ResourcePoolMapped(f, 2)) {
+            ResourcePoolMapped b = new ResourcePoolMapped(f, 2);
+            b.acquire(1);
+            b.close();
+            assertEquals(2, a.available());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolSetTest {
+
+    @Test
+    void all_or_nothing_without_partial_hold() throws InterruptedException {
+        ResourcePool db = new ResourcePoolFifo(2);
+        ResourcePool cpu = new ResourcePoolFifo(4);
+        ResourcePoolSet set = new ResourcePoolSet(db, cpu);
+
+        set.acquire(0, 4); // tous les jetons CPU sont pris
+
+        AtomicInteger got = new AtomicInteger(0);
+        Thread t = new Thread(() -> {
+            try {
+                set.acquire(2, 1); // doit BLOQUER sur cpu
+                got.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t.start();
+        Thread.sleep(50);
+        assertEquals(0, got.get());
+        assertEquals(2, db.available(), "aucune connexion DB gardée pendant l'attente");
+
+        set.release(0, 1);
+        t.join(500);
+        assertEquals(1, got.get());
+        assertEquals(0, db.available());
+        assertEquals(0, cpu.available());
+    }
+
+    @Test
+    void fifo_between_set_requests() throws InterruptedException {
+        ResourcePoolSet set = new ResourcePoolSet(new ResourcePoolFifo(2), new ResourcePoolFifo(2));
+        set.acquire(2, 2);
+
+        List<Integer> order = new ArrayList<>();
+        // t1 veut tout : t2 ne peut être servi qu'après la libération de t1
+        Thread t1 = new Thread(() -> acquireRecordRelease(set, 1, new int[] { 2, 2 }, order));
+        Thread t2 = new Thread(() -> acquireRecordRelease(set, 2, new int[] { 0, 1 }, order));
+        t1.start();
+        Thread.sleep(30);
+        t2.start();
+        Thread.sleep(30);
+
+        set.release(0, 2); // t2 pourrait passer, mais t1 est devant
+        Thread.sleep(30);
+        synchronized (order) {
+            assertTrue(order.isEmpty(), "t2 ne double pas t1");
+        }
+        set.release(2, 0);
+        t1.join(500);
+        t2.join(500);
+        assertEquals(List.of(1, 2), order);
+    }
+
+    @Test
+    void release_outside_the_set_is_seen_by_retry_and_timeout_gives_up() throws InterruptedException {
+        ResourcePool a = new ResourcePoolDirect(1);
+        ResourcePool b = new ResourcePoolDirect(1);
+        ResourcePoolSet set = new ResourcePoolSet(1, TimeUnit.MILLISECONDS, a, b);
+
+        b.acquire(1); // pris hors set
+        assertFalse(set.tryAcquire(1, 1));
+        assertFalse(set.tryAcquire(40, TimeUnit.MILLISECONDS, 1, 1));
+        assertEquals(1, a.available());
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            b.release(1); // hors set : pas de signal
+        });
+        releaser.start();
+        assertTrue(set.tryAcquire(500, TimeUnit.MILLISECONDS, 1, 1));
+        releaser.join();
+        assertEquals(0, a.available());
+        assertEquals(0, b.available());
+
+        assertThrows(IllegalArgumentException.class, () -> set.acquire(1));
+        assertThrows(IllegalArgumentException.class, () -> set.acquire(0, 0));
+    }
+
+    // ---------- helpers ----------
+    private static void acquireRecordRelease(ResourcePoolSet set, int id, int[] d, List<Integer> order) {
+        try {
+            set.acquire(d);
+            synchronized (order) {
+                order.add(id);
+            }
+            set.release(d);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package nebula.alloc;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ResourcePoolSmokeTest {
@@ -10,4 +13,34 @@ class ResourcePoolSmokeTest {
         assertEquals(4, p.capacity());
         assertEquals(4, p.available());
     }
+
+    @Test
+    void direct_tryAcquire_non_blocking_and_timeout() throws InterruptedException {
+        ResourcePool p = new ResourcePoolDirect(2);
+        assertTrue(p.tryAcquire(2));
+        assertFalse(p.tryAcquire(1));
+
+        long t0 = System.nanoTime();
+        boolean ok = p.tryAcquire(1, 50, TimeUnit.MILLISECONDS);
+        long dtMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        assertFalse(ok, "doit échouer sur timeout si plein");
+        assertTrue(dtMs >= 45, "le timeout doit être respecté (~50ms)");
+
+        p.release(2);
+        assertTrue(p.tryAcquire(1, 50, TimeUnit.MILLISECONDS));
+        assertEquals(1, p.available());
+    }
+
+    @Test
+    void direct_resize_keeps_over_release_detection() throws InterruptedException {
+        ResourcePoolDirect p = new ResourcePoolDirect(2);
+        p.acquire(2);
+        p.setCapacity(4);
+        assertEquals(2, p.available());
+        p.setCapacity(1);
+        assertEquals(-1, p.available());
+        p.release(2);
+        assertEquals(1, p.available());
+        assertThrows(IllegalStateException.class, () -> p.release(1));
+    }
 }
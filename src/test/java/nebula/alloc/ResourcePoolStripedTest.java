@@ -0,0 +1,123 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolStripedTest {
+
+    @Test
+    void capacity_is_split_and_aggregated() throws InterruptedException {
+        ResourcePoolStriped p = new ResourcePoolStriped(10, 4);
+        assertEquals(4, p.stripeCount());
+        assertEquals(10, p.capacity());
+        assertEquals(10, p.available());
+
+        // 7 > part d'une bande : oblige à voler chez les voisines
+        p.acquire(7);
+        assertEquals(3, p.available());
+        assertFalse(p.tryAcquire(4));
+        assertEquals(3, p.available(), "échec tout-ou-rien : rien n'est gardé");
+
+        p.release(7);
+        assertEquals(10, p.available());
+        assertThrows(IllegalStateException.class, () -> p.release(1));
+        assertEquals(10, p.available());
+    }
+
+    @Test
+    void stripes_never_outnumber_permits() {
+        assertEquals(2, new ResourcePoolStriped(3, 64).stripeCount());
+        assertEquals(1, new ResourcePoolStriped(1, 64).stripeCount());
+    }
+
+    @Test
+    void blocks_when_dry_and_resumes_after_release_from_other_thread() throws InterruptedException {
+        ResourcePool p = new ResourcePoolStriped(4, 4);
+        p.acquire(4);
+
+        AtomicInteger step = new AtomicInteger(0);
+        Thread t = new Thread(() -> {
+            try {
+                p.acquire(3); // doit BLOQUER
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+
+        p.release(2);
+        Thread.sleep(20);
+        assertEquals(0, step.get(), "2 permis ne suffisent pas pour k=3");
+        p.release(2);
+        t.join(500);
+        assertEquals(1, step.get());
+        assertEquals(1, p.available());
+
+        assertFalse(p.tryAcquire(2, 30, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void never_exceeds_capacity_under_contention() throws InterruptedException {
+        ResourcePool p = new ResourcePoolStriped(6, 4);
+        AtomicInteger inUse = new AtomicInteger(0);
+        AtomicInteger peak = new AtomicInteger(0);
+
+        int threads = 8;
+        Thread[] ts = new Thread[threads];
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            final int k = 1 + (i % 3);
+            ts[i] = new Thread(() -> {
+                try {
+                    go.await();
+                    for (int n = 0; n < 2000; n++) {
+                        p.acquire(k);
+                        peak.accumulateAndGet(inUse.addAndGet(k), Math::max);
+                        inUse.addAndGet(-k);
+                        p.release(k);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[i].start();
+        }
+        go.countDown();
+        for (Thread t : ts)
+            t.join();
+
+        assertTrue(peak.get() <= 6, "jamais plus de permis distribués que la capacité");
+        assertEquals(6, p.available());
+    }
+
+    @Test
+    void try_acquire_retries_while_partial_takes_hold_permits_briefly() throws InterruptedException {
+        // demande totale (2 x 2) bien en deçà de la capacité : aucun échec attendu
+        ResourcePoolStriped p = new ResourcePoolStriped(8, 4);
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] ts = new Thread[2];
+        for (int t = 0; t < ts.length; t++) {
+            ts[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    if (p.tryAcquire(2))
+                        p.release(2);
+                    else
+                        failures.incrementAndGet();
+                }
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts)
+            t.join();
+        assertEquals(0, failures.get());
+        assertEquals(8, p.available());
+    }
+}
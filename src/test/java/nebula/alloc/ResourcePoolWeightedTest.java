@@ -0,0 +1,91 @@
+package nebula.alloc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolWeightedTest {
+
+    static final int INTERACTIVE = 0;
+    static final int BATCH = 1;
+
+    @Test
+    void weights_share_the_pool_under_saturation() throws InterruptedException {
+        // capacité 1 : chaque release sert exactement une demande
+        ResourcePoolWeighted p = new ResourcePoolWeighted(1, 3, 1);
+        p.acquire(1);
+
+        List<String> order = new ArrayList<>();
+        List<Thread> ts = new ArrayList<>();
+        // le batch arrive en premier (rafale), l'interactif ensuite
+        for (int i = 0; i < 6; i++)
+            ts.add(start(() -> serveAndRelease(p, BATCH, "B", order)));
+        Thread.sleep(40);
+        for (int i = 0; i < 6; i++)
+            ts.add(start(() -> serveAndRelease(p, INTERACTIVE, "I", order)));
+        Thread.sleep(40);
+        assertEquals(6, p.queued(BATCH));
+        assertEquals(6, p.queued(INTERACTIVE));
+
+        p.release(1); // chaque servi rend son permis : le reste s'enchaîne
+        for (Thread t : ts)
+            t.join(1000);
+
+        // le batch, arrivé seul, avait la main ; ensuite DRR poids 3:1
+        assertEquals(List.of("B", "I", "I", "I", "B", "I", "I", "I"), order.subList(0, 8));
+        assertEquals(1, p.available());
+    }
+
+    @Test
+    void batch_still_progresses_and_fifo_within_class() throws InterruptedException {
+        ResourcePoolWeighted p = new ResourcePoolWeighted(2, 100, 1);
+        p.acquire(INTERACTIVE, 2);
+
+        List<String> order = new ArrayList<>();
+        Thread b1 = start(() -> serveAndRelease(p, BATCH, "B1", order));
+        Thread.sleep(20);
+        Thread b2 = start(() -> serveAndRelease(p, BATCH, "B2", order));
+        Thread.sleep(20);
+
+        p.release(1); // un seul permis : B1 servi, puis il rend le sien à B2
+        b1.join(500);
+        b2.join(500);
+        p.release(1);
+        assertEquals(List.of("B1", "B2"), order);
+    }
+
+    @Test
+    void timed_out_waiter_leaves_its_class() throws InterruptedException {
+        ResourcePoolWeighted p = new ResourcePoolWeighted(1, 1, 1);
+        p.acquire(BATCH, 1);
+        assertFalse(p.tryAcquire(INTERACTIVE, 1));
+        assertFalse(p.tryAcquire(INTERACTIVE, 1, 30, TimeUnit.MILLISECONDS));
+        assertEquals(0, p.queued(INTERACTIVE));
+        p.release(1);
+        assertTrue(p.tryAcquire(INTERACTIVE, 1));
+        assertThrows(IllegalArgumentException.class, () -> p.acquire(2, 1));
+    }
+
+    // ---------- helpers ----------
+    private static Thread start(Runnable r) {
+        Thread t = new Thread(r);
+        t.start();
+        return t;
+    }
+
+    private static void serveAndRelease(ResourcePoolWeighted p, int cls, String tag, List<String> order) {
+        try {
+            p.acquire(cls, 1);
+            synchronized (order) {
+                order.add(tag);
+            }
+            p.release(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
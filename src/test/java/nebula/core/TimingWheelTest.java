@@ -0,0 +1,48 @@
+package nebula.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void fires_on_time_across_levels_never_early() {
+        // tick = 1 µs : on pilote le temps via advance(now), sans dormir
+        TimingWheel w = new TimingWheel(1, TimeUnit.MICROSECONDS);
+        long t0 = System.nanoTime();
+        List<Long> fired = new ArrayList<>();
+        long[] delaysUs = { 3, 70, 5_000, 300_000, 20_000_000 }; // niveaux 0, 1, 2, 3, hors horizon
+        for (long d : delaysUs)
+            w.schedule(() -> fired.add(d), d, TimeUnit.MICROSECONDS);
+        long t1 = System.nanoTime(); // échéances dans [t0 + d, t1 + d]
+        assertEquals(5, w.pending());
+
+        for (long d : delaysUs) {
+            w.advance(t0 + TimeUnit.MICROSECONDS.toNanos(d) - 2_000); // 2 µs avant
+            assertFalse(fired.contains(d), "jamais avant l'échéance : " + d);
+            w.advance(t1 + TimeUnit.MICROSECONDS.toNanos(d + 2));
+            assertTrue(fired.contains(d), "échu à temps : " + d);
+        }
+        assertEquals(List.of(3L, 70L, 5_000L, 300_000L, 20_000_000L), fired);
+        assertEquals(0, w.pending());
+    }
+
+    @Test
+    void cancelled_timeout_never_fires() {
+        TimingWheel w = new TimingWheel(1, TimeUnit.MILLISECONDS);
+        long t0 = System.nanoTime();
+        List<String> fired = new ArrayList<>();
+        var a = w.schedule(() -> fired.add("a"), 100, TimeUnit.MILLISECONDS);
+        w.schedule(() -> fired.add("b"), 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(w.cancel(a));
+        assertFalse(w.cancel(a));
+        assertEquals(1, w.advance(t0 + TimeUnit.MILLISECONDS.toNanos(200)));
+        assertEquals(List.of("b"), fired);
+    }
+}
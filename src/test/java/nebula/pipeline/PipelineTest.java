@@ -0,0 +1,127 @@
+package nebula.pipeline;
+
+import nebula.queue.EventQueueTwoLock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineTest {
+
+    @Test
+    void stages_transform_filter_and_drain_on_close() throws InterruptedException {
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        Stage<String, Integer> parse = new Stage<>("parse", 2, 4, Integer::parseInt); // "x" échoue
+        parse.then(new Stage<Integer, Integer>("odd", 2, 4, EventQueueTwoLock::new, x -> x % 2 == 1 ? x * x : null))
+                .then(new Stage<Integer, Void>("sink", 1, 4, x -> {
+                    out.add(x);
+                    return null;
+                }));
+
+        Pipeline<String> p = new Pipeline<>(parse);
+        for (int i = 0; i < 20; i++)
+            p.put(Integer.toString(i));
+        p.put("x");
+        p.close(); // chaque étape vide sa file avant de s'arrêter
+
+        Collections.sort(out);
+        assertEquals(List.of(1, 9, 25, 49, 81, 121, 169, 225, 289, 361), out);
+        List<Stage<?, ?>> stages = p.stages();
+        assertEquals(3, stages.size());
+        assertEquals(21, stages.get(0).stats().processed());
+        assertEquals(1, stages.get(0).stats().failures());
+        assertEquals(10, stages.get(2).stats().processed(), "null = filtré");
+        assertThrows(IllegalStateException.class, () -> p.put("1"));
+    }
+
+    @Test
+    void slow_stage_pushes_back_and_is_reported_as_bottleneck() throws InterruptedException {
+        Stage<Integer, Integer> fast = new Stage<>("fast", 1, 2, x -> x);
+        fast.then(new Stage<Integer, Void>("slow", 1, 2, x -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        Pipeline<Integer> p = new Pipeline<>(fast);
+
+        boolean refused = false;
+        for (int i = 0; i < 20 && !refused; i++)
+            refused = !p.offer(i);
+        assertTrue(refused, "la file d'entrée finit pleine : contre-pression remontée");
+        for (int i = 0; i < 10; i++)
+            p.put(i);
+
+        assertTrue(fast.stats().blockedPuts() > 0, "fast a attendu slow");
+        assertEquals("slow", p.bottleneck().name());
+        assertTrue(p.summary().contains("slow x1"));
+        p.close();
+    }
+
+    @Test
+    void resize_adds_and_removes_workers() throws InterruptedException {
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        Stage<Integer, Void> work = new Stage<>("work", 1, 8, x -> {
+            out.add(x);
+            return null;
+        });
+        Pipeline<Integer> p = new Pipeline<>(work);
+        work.resize(3);
+        assertEquals(3, work.parallelism());
+        for (int i = 0; i < 50; i++)
+            p.put(i);
+        work.resize(1); // pilules derrière les événements déjà en file
+        for (int i = 50; i < 60; i++)
+            p.put(i);
+        p.close();
+        assertEquals(60, out.size());
+        assertEquals(1, work.parallelism());
+    }
+
+    @Test
+    void puts_racing_close_are_all_delivered_or_rejected() throws InterruptedException {
+        AtomicInteger delivered = new AtomicInteger();
+        Stage<Integer, Void> sink = new Stage<>("sink", 2, 4, x -> {
+            delivered.incrementAndGet();
+            return null;
+        });
+        Pipeline<Integer> p = new Pipeline<>(sink);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread th = new Thread(() -> {
+                try {
+                    for (int i = 0;; i++) {
+                        p.put(i);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    // fermé : les puts suivants sont refusés
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            producers.add(th);
+            th.start();
+        }
+        Thread.sleep(30);
+        p.close(); // aucun put accepté ne reste derrière les pilules
+        for (Thread th : producers)
+            th.join(1000);
+        assertEquals(accepted.get(), delivered.get());
+    }
+
+    @Test
+    void resize_is_rejected_once_stopping() throws InterruptedException {
+        Stage<Integer, Void> work = new Stage<>("work", 2, 4, x -> null);
+        Pipeline<Integer> p = new Pipeline<>(work);
+        p.close();
+        assertThrows(IllegalStateException.class, () -> work.resize(4));
+    }
+}
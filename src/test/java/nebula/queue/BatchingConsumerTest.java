@@ -0,0 +1,71 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingConsumerTest {
+
+    @Test
+    void deep_queue_grows_batches_and_keeps_order() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSCC<>(4096);
+        for (int i = 0; i < 3000; i++)
+            q.put(i);
+        List<List<Integer>> seen = Collections.synchronizedList(new ArrayList<>());
+        var c = new BatchingConsumer<>(q, seen::add, 1, 128, 1, TimeUnit.MILLISECONDS);
+        long t0 = System.nanoTime();
+        while (c.items() < 3000 && System.nanoTime() - t0 < TimeUnit.SECONDS.toNanos(5))
+            Thread.sleep(1); // consommé par la boucle normale, pas par close()
+        c.close();
+
+        List<Integer> all = new ArrayList<>();
+        int biggest = 0;
+        for (List<Integer> b : seen) {
+            all.addAll(b);
+            biggest = Math.max(biggest, b.size());
+        }
+        assertEquals(3000, all.size());
+        for (int i = 0; i < 3000; i++)
+            assertEquals(i, all.get(i));
+        assertEquals(128, biggest, "la cible monte jusqu'à maxBatch");
+        assertTrue(c.batches() < 100, "beaucoup moins d'appels que d'éléments");
+        assertEquals(3000, c.items());
+    }
+
+    @Test
+    void light_load_keeps_small_batches() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSCC<>(64);
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        var c = new BatchingConsumer<Integer>(q, b -> sizes.add(b.size()));
+        for (int i = 0; i < 5; i++) {
+            q.put(i);
+            Thread.sleep(20); // un élément à la fois
+        }
+        c.close();
+        assertEquals(List.of(1, 1, 1, 1, 1), sizes);
+        assertEquals(1, c.currentBatchSize());
+    }
+
+    @Test
+    void partial_batch_is_flushed_after_linger() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSCC<>(64);
+        List<List<Integer>> seen = Collections.synchronizedList(new ArrayList<>());
+        var c = new BatchingConsumer<>(q, seen::add, 4, 16, 30, TimeUnit.MILLISECONDS);
+        long t0 = System.nanoTime();
+        q.putAll(List.of(1, 2));
+        while (seen.isEmpty() && System.nanoTime() - t0 < TimeUnit.SECONDS.toNanos(1))
+            Thread.sleep(1);
+        long waited = System.nanoTime() - t0;
+        assertEquals(List.of(List.of(1, 2)), seen);
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(25), "attend linger pour compléter le lot");
+
+        q.put(3);
+        c.close(); // livré à la fermeture
+        assertEquals(List.of(3), seen.get(seen.size() - 1));
+    }
+}
@@ -0,0 +1,103 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueueMpmcTest {
+
+    @Test
+    void exact_capacity_and_fifo_single_thread() throws InterruptedException {
+        EventQueueMpmc<Integer> q = new EventQueueMpmc<>(3); // anneau de 4
+        assertTrue(q.offer(1));
+        assertTrue(q.offer(2));
+        assertTrue(q.offer(3));
+        assertFalse(q.offer(4), "borne exacte : 3");
+        assertEquals(3, q.size());
+        assertEquals(1, q.take());
+        assertEquals(2, q.take());
+        assertEquals(3, q.take());
+        assertNull(q.poll());
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void producer_blocks_when_full_and_resumes_after_take() throws InterruptedException {
+        EventQueueMpmc<Integer> q = new EventQueueMpmc<>(1);
+        q.put(42);
+        AtomicInteger step = new AtomicInteger(0);
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(43); // doit BLOQUER jusqu'au take
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+        assertEquals(42, q.take());
+        producer.join(300);
+        assertEquals(1, step.get());
+        assertEquals(43, q.take());
+    }
+
+    @Test
+    void many_producers_many_consumers_lose_nothing() throws InterruptedException {
+        final int producers = 4, consumers = 4, perProducer = 50_000;
+        EventQueueMpmc<Long> q = new EventQueueMpmc<>(128);
+        AtomicLong sum = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            final long id = p;
+            threads.add(new Thread(() -> {
+                try {
+                    for (long i = 1; i <= perProducer; i++)
+                        q.put(id << 32 | i);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        int total = producers * perProducer;
+        AtomicInteger remaining = new AtomicInteger(total);
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (remaining.getAndDecrement() > 0) {
+                        long v = q.take();
+                        sum.addAndGet(v & 0xFFFF_FFFFL); // id producteur dans les bits hauts
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads)
+            t.join(20_000);
+
+        long expected = (long) producers * perProducer * (perProducer + 1) / 2;
+        assertEquals(expected, sum.get(), "chaque élément consommé exactement une fois");
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void drainTo_and_takeBatch() throws InterruptedException {
+        EventQueueMpmc<Integer> q = new EventQueueMpmc<>(8);
+        q.putAll(List.of(1, 2, 3, 4, 5));
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(3, q.drainTo(sink, 3));
+        assertEquals(List.of(1, 2, 3), sink);
+        assertEquals(List.of(4, 5), q.takeBatch(256, 0, TimeUnit.MILLISECONDS));
+        assertTrue(q.takeBatch(256, 20, TimeUnit.MILLISECONDS).isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueuePriorityTest {
+
+    /** Événement : priorité (0 = urgent) et identifiant pour vérifier l'ordre. */
+    private record Ev(int prio, int id) {
+    }
+
+    private static final Comparator<Ev> BY_PRIO = Comparator.comparingInt(Ev::prio);
+
+    @Test
+    void urgent_first_and_fifo_within_same_priority() throws InterruptedException {
+        EventQueue<Ev> q = new EventQueuePriority<>(16, BY_PRIO);
+        for (int i = 0; i < 10; i++)
+            q.put(new Ev(i % 3 == 0 ? 0 : 5, i)); // 0, 3, 6, 9 urgents
+        q.put(new Ev(1, 10));
+
+        List<Integer> ids = new ArrayList<>();
+        while (q.size() > 0)
+            ids.add(q.take().id());
+        assertEquals(List.of(0, 3, 6, 9, 10, 1, 2, 4, 5, 7, 8), ids);
+    }
+
+    @Test
+    void capacity_gives_back_pressure() throws InterruptedException {
+        EventQueue<Ev> q = new EventQueuePriority<>(2, BY_PRIO);
+        q.put(new Ev(5, 1));
+        q.put(new Ev(5, 2));
+        assertFalse(q.offer(new Ev(0, 3)), "pleine");
+
+        AtomicInteger step = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(new Ev(0, 4)); // bloque jusqu'au take
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+
+        assertEquals(1, q.take().id());
+        producer.join(300);
+        assertEquals(1, step.get());
+        assertEquals(4, q.take().id(), "l'urgent passe devant");
+        assertEquals(2, q.poll(10, TimeUnit.MILLISECONDS).id());
+        assertNull(q.poll());
+    }
+
+    @Test
+    void sharded_queue_keeps_global_order_once_filled() throws InterruptedException {
+        int producers = 4, perProducer = 200;
+        EventQueuePriority<Ev> q = new EventQueuePriority<>(producers * perProducer, BY_PRIO, 4);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++)
+                        q.put(new Ev(i % 4, base + i));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, q.size());
+
+        List<Ev> got = q.takeBatch(producers * perProducer, 0, TimeUnit.MILLISECONDS);
+        assertEquals(producers * perProducer, got.size());
+        for (int i = 1; i < got.size(); i++)
+            assertTrue(got.get(i - 1).prio() <= got.get(i).prio(), "priorités croissantes");
+        for (int prio = 0; prio < 4; prio++) {
+            int[] last = new int[producers];
+            Arrays.fill(last, -1);
+            for (Ev e : got) {
+                if (e.prio() != prio)
+                    continue;
+                int p = e.id() / perProducer;
+                assertTrue(e.id() > last[p], "FIFO par producteur à priorité égale");
+                last[p] = e.id();
+            }
+        }
+    }
+}
@@ -2,8 +2,13 @@ package nebula.queue;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,4 +89,113 @@ class EventQueueSCCTest {
         assertEquals(99, got.get());
         assertEquals(0, q.size());
     }
+
+    @Test
+    void putAll_larger_than_capacity_waits_for_room() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSCC<>(2);
+        Thread producer = new Thread(() -> {
+            try {
+                q.putAll(List.of(1, 2, 3, 4, 5)); // 2 par 2 au fil des take
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        List<Integer> got = new ArrayList<>();
+        while (got.size() < 5)
+            got.addAll(q.takeBatch(256, 1, TimeUnit.SECONDS));
+        producer.join(300);
+        assertEquals(List.of(1, 2, 3, 4, 5), got);
+    }
+
+    @Test
+    void drainTo_and_takeBatch_respect_max_and_timeout() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSCC<>(8);
+        q.putAll(List.of(1, 2, 3, 4, 5));
+
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(2, q.drainTo(sink, 2));
+        assertEquals(List.of(1, 2), sink);
+        assertEquals(List.of(3, 4, 5), q.takeBatch(256, 0, TimeUnit.MILLISECONDS));
+        assertEquals(0, q.drainTo(sink, 10));
+
+        long t0 = System.nanoTime();
+        assertTrue(q.takeBatch(256, 30, TimeUnit.MILLISECONDS).isEmpty());
+        assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(25));
+        assertThrows(NullPointerException.class, () -> q.putAll(Arrays.asList(1, null)));
+        assertEquals(0, q.size(), "lot refusé en entier");
+    }
+
+    @Test
+    void monitor_takeBatch_wakes_up_on_put() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueMonitor<>(4);
+        List<Integer> got = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                got.addAll(q.takeBatch(256, 1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        Thread.sleep(30);
+        q.putAll(List.of(7, 8));
+        consumer.join(300);
+        assertFalse(got.isEmpty());
+        assertEquals(7, got.get(0));
+    }
+
+    /** Toutes les implémentations en mémoire (SPSC : un seul thread de chaque côté ici). */
+    private static List<IntFunction<EventQueue<Integer>>> allQueues() {
+        return List.of(EventQueueMonitor::new, EventQueueSCC::new, EventQueueTwoLock::new,
+                EventQueueSpsc::new, EventQueueMpmc::new);
+    }
+
+    @Test
+    void offer_and_poll_fail_fast_or_after_deadline() throws InterruptedException {
+        for (var factory : allQueues()) {
+            EventQueue<Integer> q = factory.apply(2);
+            String name = q.getClass().getSimpleName();
+            assertNull(q.poll(), name);
+            assertTrue(q.offer(1), name);
+            assertTrue(q.offer(2, 0, TimeUnit.MILLISECONDS), name);
+            assertFalse(q.offer(3), name + " pleine");
+
+            long t0 = System.nanoTime();
+            assertFalse(q.offer(3, 20, TimeUnit.MILLISECONDS), name);
+            assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(15), name);
+
+            assertEquals(1, q.poll(), name);
+            assertEquals(2, q.poll(0, TimeUnit.MILLISECONDS), name);
+            t0 = System.nanoTime();
+            assertNull(q.poll(20, TimeUnit.MILLISECONDS), name);
+            assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(15), name);
+            assertEquals(0, q.size(), name);
+        }
+    }
+
+    @Test
+    void timed_offer_and_poll_wake_up_before_deadline() throws InterruptedException {
+        for (var factory : allQueues()) {
+            EventQueue<Integer> q = factory.apply(1);
+            String name = q.getClass().getSimpleName();
+            q.put(1);
+            Thread consumer = new Thread(() -> {
+                try {
+                    Thread.sleep(30);
+                    q.take(); // libère la place attendue par offer
+                    q.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumer.start();
+            long t0 = System.nanoTime();
+            assertTrue(q.offer(2, 1, TimeUnit.SECONDS), name);
+            assertTrue(System.nanoTime() - t0 < TimeUnit.MILLISECONDS.toNanos(900), name);
+            consumer.join(1000);
+            assertEquals(0, q.size(), name);
+        }
+    }
 }
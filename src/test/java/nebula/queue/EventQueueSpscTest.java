@@ -0,0 +1,137 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueueSpscTest {
+
+    @Test
+    void exact_capacity_even_when_ring_is_rounded_up() throws InterruptedException {
+        EventQueueSpsc<Integer> q = new EventQueueSpsc<>(3); // anneau de 4
+        q.put(1);
+        q.put(2);
+        q.put(3);
+        assertEquals(3, q.size());
+
+        AtomicInteger step = new AtomicInteger(0);
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(4); // plein à 3 : doit bloquer
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+
+        assertEquals(1, q.take());
+        producer.join(300);
+        assertEquals(1, step.get());
+        assertEquals(2, q.take());
+        assertEquals(3, q.take());
+        assertEquals(4, q.take());
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void consumer_parks_when_empty_and_resumes_after_put() throws InterruptedException {
+        EventQueueSpsc<Integer> q = new EventQueueSpsc<>(2);
+        AtomicInteger got = new AtomicInteger(-1);
+        Thread consumer = new Thread(() -> {
+            try {
+                got.set(q.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        Thread.sleep(50); // au-delà du spin : le consommateur est parké
+        assertEquals(-1, got.get());
+        q.put(99);
+        consumer.join(300);
+        assertEquals(99, got.get());
+    }
+
+    @Test
+    void one_producer_one_consumer_keeps_order() throws InterruptedException {
+        final int n = 200_000;
+        EventQueueSpsc<Integer> q = new EventQueueSpsc<>(64);
+        AtomicLong errors = new AtomicLong();
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < n; i++) {
+                    if (q.take() != i)
+                        errors.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < n; i++)
+            q.put(i);
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive());
+        assertEquals(0, errors.get(), "ordre FIFO préservé");
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void interrupt_while_waiting_for_item() throws InterruptedException {
+        EventQueueSpsc<Integer> q = new EventQueueSpsc<>(1);
+        AtomicInteger interrupted = new AtomicInteger(0);
+        Thread consumer = new Thread(() -> {
+            try {
+                q.take();
+            } catch (InterruptedException e) {
+                interrupted.set(1);
+            }
+        });
+        consumer.start();
+        Thread.sleep(20);
+        consumer.interrupt();
+        consumer.join(300);
+        assertEquals(1, interrupted.get());
+    }
+
+    @Test
+    void batches_cross_the_ring_in_order() throws InterruptedException {
+        final int n = 10_000;
+        EventQueueSpsc<Integer> q = new EventQueueSpsc<>(16);
+        Thread producer = new Thread(() -> {
+            try {
+                List<Integer> chunk = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    chunk.add(i);
+                    if (chunk.size() == 40) { // plus grand que l'anneau
+                        q.putAll(chunk);
+                        chunk.clear();
+                    }
+                }
+                q.putAll(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        int expected = 0;
+        while (expected < n) {
+            List<Integer> batch = q.takeBatch(256, 1, TimeUnit.SECONDS);
+            assertFalse(batch.isEmpty());
+            assertTrue(batch.size() <= 16);
+            for (int v : batch)
+                assertEquals(expected++, v);
+        }
+        producer.join(1000);
+        assertTrue(q.takeBatch(8, 10, TimeUnit.MILLISECONDS).isEmpty());
+    }
+}
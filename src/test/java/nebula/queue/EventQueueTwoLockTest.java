@@ -0,0 +1,110 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueueTwoLockTest {
+
+    @Test
+    void fifo_with_wraparound() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueTwoLock<>(3);
+        for (int round = 0; round < 4; round++) {
+            q.put(3 * round);
+            q.put(3 * round + 1);
+            q.put(3 * round + 2);
+            assertEquals(3, q.size());
+            assertEquals(3 * round, q.take());
+            assertEquals(List.of(3 * round + 1, 3 * round + 2), q.takeBatch(8, 0, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void full_to_not_full_wakes_blocked_producer() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueTwoLock<>(2, true);
+        q.putAll(List.of(1, 2));
+        AtomicInteger step = new AtomicInteger(0);
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(3); // doit BLOQUER : plein
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(2, q.drainTo(sink, 10)); // plein → vide : un seul signal croisé
+        producer.join(300);
+        assertEquals(1, step.get());
+        assertEquals(3, q.take());
+    }
+
+    @Test
+    void empty_to_not_empty_wakes_all_consumers_by_cascade() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueTwoLock<>(8);
+        AtomicInteger got = new AtomicInteger(0);
+        List<Thread> consumers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread c = new Thread(() -> {
+                try {
+                    q.take();
+                    got.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumers.add(c);
+            c.start();
+        }
+        Thread.sleep(50);
+        q.putAll(List.of(1, 2, 3)); // un seul signal croisé, puis cascade côté take
+        for (Thread c : consumers)
+            c.join(300);
+        assertEquals(3, got.get());
+    }
+
+    @Test
+    void producers_and_consumers_lose_nothing() throws InterruptedException {
+        final int producers = 3, consumers = 3, perProducer = 20_000;
+        EventQueue<Integer> q = new EventQueueTwoLock<>(16);
+        AtomicLong sum = new AtomicLong();
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 1; i <= perProducer; i++)
+                        q.put(i);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (remaining.getAndDecrement() > 0)
+                        sum.addAndGet(q.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads)
+            t.join(10_000);
+        assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+        assertEquals(0, q.size());
+    }
+}
@@ -0,0 +1,113 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    /** Événement mutable réutilisé. */
+    static final class Ev {
+        long value;
+    }
+
+    @Test
+    void slots_are_created_once_and_reused() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        EventRing<Ev> ring = new EventRing<>(4, 1, () -> {
+            created.incrementAndGet();
+            return new Ev();
+        });
+        Set<Ev> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long v = i;
+            ring.publishEvent(e -> e.value = v);
+            ring.cursor(0).take(e -> {
+                seen.add(e);
+                values.add(e.value);
+            });
+        }
+        assertEquals(4, created.get());
+        assertEquals(4, seen.size(), "mêmes instances à chaque tour");
+        assertEquals(20, values.size());
+        assertEquals(19L, values.get(19));
+    }
+
+    @Test
+    void claim_blocks_until_slowest_consumer_frees_a_slot() throws InterruptedException {
+        EventRing<Ev> ring = new EventRing<>(2, 2, Ev::new);
+        for (int i = 0; i < 2; i++)
+            ring.publishEvent(e -> e.value = 7);
+        assertEquals(2, ring.cursor(0).drain(e -> { }, 10)); // le rapide a tout lu
+        assertEquals(-1, ring.tryClaim(), "le lent retient encore les cases");
+
+        AtomicLong claimed = new AtomicLong(-1);
+        Thread producer = new Thread(() -> {
+            try {
+                claimed.set(ring.claim());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(-1, claimed.get()); // bloqué
+
+        assertTrue(ring.cursor(1).poll(e -> assertEquals(7, e.value)));
+        producer.join(300);
+        assertEquals(2, claimed.get());
+        assertEquals(1, ring.size());
+    }
+
+    @Test
+    void consumers_see_only_contiguous_published_prefix() throws InterruptedException {
+        EventRing<Ev> ring = new EventRing<>(8, 1, Ev::new);
+        long a = ring.claim(), b = ring.claim();
+        ring.get(a).value = 10;
+        ring.get(b).value = 20;
+        ring.publish(b); // dans le désordre
+        assertFalse(ring.cursor(0).poll(e -> fail("a pas encore publié")));
+
+        ring.publish(a);
+        List<Long> got = new ArrayList<>();
+        assertEquals(2, ring.cursor(0).drain(e -> got.add(e.value), 8));
+        assertEquals(List.of(10L, 20L), got);
+        assertThrows(IllegalStateException.class, () -> ring.publish(b));
+    }
+
+    @Test
+    void steady_state_allocates_nothing() throws InterruptedException {
+        var mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        EventRing<Ev> ring = new EventRing<>(64, 1, Ev::new);
+        EventRing<Ev>.Cursor cursor = ring.cursor(0);
+        long[] sum = new long[1];
+        Consumer<Ev> handler = e -> sum[0] += e.value; // créé une fois : pas d'allocation par tour
+        long tid = Thread.currentThread().threadId();
+        for (int i = 0; i < 10_000; i++) // échauffement (JIT)
+            cycle(ring, cursor, i, handler);
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 100_000; i++)
+            cycle(ring, cursor, i, handler);
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        assertTrue(allocated < 4096, "alloué=" + allocated + " octets pour 100k événements");
+    }
+
+    private static void cycle(EventRing<Ev> ring, EventRing<Ev>.Cursor cursor, int i, Consumer<Ev> handler)
+            throws InterruptedException {
+        long seq = ring.claim();
+        ring.get(seq).value = i;
+        ring.publish(seq);
+        cursor.take(handler);
+    }
+}
@@ -0,0 +1,64 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntEventQueueTest {
+
+    @Test
+    void fifo_with_wraparound() throws InterruptedException {
+        IntEventQueue q = new IntEventQueue(3);
+        for (int i = 0; i < 10; i++) {
+            q.put(2 * i);
+            q.put(2 * i + 1);
+            assertEquals(2, q.size());
+            assertEquals(2 * i, q.take());
+            assertEquals(2 * i + 1, q.take());
+        }
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    void producer_blocks_when_full_and_resumes_after_take() throws InterruptedException {
+        IntEventQueue q = new IntEventQueue(1);
+        q.put(42);
+        AtomicInteger step = new AtomicInteger(0);
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(43); // doit BLOQUER jusqu'au take
+                step.set(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertEquals(0, step.get());
+        assertEquals(42, q.take());
+        producer.join(300);
+        assertEquals(1, step.get());
+        assertEquals(43, q.take());
+    }
+
+    @Test
+    void steady_state_allocates_nothing() throws InterruptedException {
+        var mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        IntEventQueue q = new IntEventQueue(64);
+        long tid = Thread.currentThread().threadId();
+        for (int i = 0; i < 10_000; i++) { // échauffement (JIT)
+            q.put(i);
+            q.take();
+        }
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 100_000; i++) {
+            q.put(i);
+            q.take();
+        }
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        assertTrue(allocated < 4096, "alloué=" + allocated + " octets pour 100k put/take");
+    }
+}
@@ -0,0 +1,40 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongEventQueueTest {
+
+    @Test
+    void keeps_full_64_bit_values_in_order() throws InterruptedException {
+        LongEventQueue q = new LongEventQueue(2);
+        q.put(Long.MAX_VALUE);
+        q.put(-1L);
+        assertEquals(2, q.size());
+        assertEquals(Long.MAX_VALUE, q.take());
+        assertEquals(-1L, q.take());
+    }
+
+    @Test
+    void consumer_blocks_when_empty_and_resumes_after_put() throws InterruptedException {
+        LongEventQueue q = new LongEventQueue(2, true);
+        AtomicLong got = new AtomicLong(-1);
+        Thread consumer = new Thread(() -> {
+            try {
+                got.set(q.take()); // bloque ici car vide
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        Thread.sleep(50);
+        assertEquals(-1, got.get());
+        q.put(1L << 40);
+        consumer.join(300);
+        assertEquals(1L << 40, got.get());
+        assertEquals(0, q.size());
+    }
+}
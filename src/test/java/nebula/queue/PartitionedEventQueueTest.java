@@ -0,0 +1,114 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedEventQueueTest {
+
+    /** Événement : entité (clé) et numéro d'ordre dans cette entité. */
+    private record Ev(String key, int n) {
+    }
+
+    @Test
+    void same_key_is_processed_in_order_on_one_lane() throws InterruptedException {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<String, String> threadOf = new ConcurrentHashMap<>();
+        var q = new PartitionedEventQueue<Ev>(4, 8, Ev::key, e -> {
+            seen.computeIfAbsent(e.key(), k -> Collections.synchronizedList(new ArrayList<>())).add(e.n());
+            threadOf.merge(e.key(), Thread.currentThread().getName(), (a, b) -> a.equals(b) ? a : "MIXED");
+        });
+        int keys = 16, perKey = 100;
+        CountDownLatch done = new CountDownLatch(2);
+        for (int p = 0; p < 2; p++) {
+            int first = p * keys / 2; // chaque producteur possède ses clés
+            new Thread(() -> {
+                try {
+                    for (int n = 0; n < perKey; n++)
+                        for (int k = first; k < first + keys / 2; k++)
+                            q.put(new Ev("k" + k, n));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        q.close(); // attend que les voies soient vides
+
+        assertEquals(keys, seen.size());
+        for (var e : seen.entrySet()) {
+            List<Integer> got = e.getValue();
+            assertEquals(perKey, got.size(), e.getKey());
+            for (int n = 0; n < perKey; n++)
+                assertEquals(n, got.get(n), "ordre de " + e.getKey());
+            assertNotEquals("MIXED", threadOf.get(e.getKey()), "un seul consommateur par clé");
+        }
+        long processed = 0;
+        for (int i = 0; i < q.laneCount(); i++)
+            processed += q.lane(i).processed();
+        assertEquals(keys * perKey, processed);
+        assertThrows(IllegalStateException.class, () -> q.put(new Ev("k0", 0)));
+    }
+
+    @Test
+    void back_pressure_is_per_lane_and_hot_lane_is_visible() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        var q = new PartitionedEventQueue<Ev>(4, 2, Ev::key, e -> {
+            if (e.key().equals("hot")) {
+                try {
+                    release.await(); // handler lent : la voie "hot" se remplit
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        int hot = q.laneForKey("hot");
+        String cold = null;
+        for (int i = 0; cold == null; i++)
+            if (q.laneForKey("c" + i) != hot)
+                cold = "c" + i;
+
+        q.put(new Ev("hot", 0)); // pris par le consommateur, qui bloque
+        Thread.sleep(30);
+        q.put(new Ev("hot", 1));
+        q.put(new Ev("hot", 2)); // voie pleine (2)
+        assertFalse(q.offer(new Ev("hot", 3), 20, TimeUnit.MILLISECONDS));
+        assertTrue(q.offer(new Ev(cold, 0), 20, TimeUnit.MILLISECONDS), "les autres voies avancent");
+
+        assertEquals(hot, q.hottestLane());
+        assertEquals(1, q.lane(hot).blockedPuts());
+        assertTrue(q.lane(hot).peakDepth() >= 2);
+        assertTrue(q.summary().contains("lane " + hot));
+
+        release.countDown();
+        q.close();
+        assertEquals(3, q.lane(hot).processed());
+        assertEquals(0, q.lane(hot).depth());
+    }
+
+    @Test
+    void handler_failure_is_counted_and_lane_keeps_going() throws InterruptedException {
+        List<Integer> ok = Collections.synchronizedList(new ArrayList<>());
+        var q = new PartitionedEventQueue<Ev>(1, 4, Ev::key, e -> {
+            if (e.n() == 1)
+                throw new IllegalStateException("boom");
+            ok.add(e.n());
+        });
+        for (int n = 0; n < 3; n++)
+            q.put(new Ev("k", n));
+        q.close();
+        assertEquals(List.of(0, 2), ok);
+        assertEquals(1, q.lane(0).failures());
+        assertEquals(3, q.lane(0).enqueued());
+    }
+}
@@ -0,0 +1,119 @@
+package nebula.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitStrategiesTest {
+
+    private static final List<Supplier<WaitStrategy>> ALL = List.of(
+            WaitStrategies::busySpin,
+            WaitStrategies::spinThenYield,
+            WaitStrategies::spinThenPark,
+            WaitStrategies::blocking);
+
+    @Test
+    void every_strategy_wakes_spsc_and_mpmc_consumers() throws InterruptedException {
+        for (Supplier<WaitStrategy> s : ALL) {
+            assertWakesUp(new EventQueueSpsc<>(4, s.get()));
+            assertWakesUp(new EventQueueMpmc<>(4, s.get()));
+        }
+    }
+
+    @Test
+    void every_strategy_honours_takeBatch_timeout() throws InterruptedException {
+        for (Supplier<WaitStrategy> s : ALL) {
+            EventQueue<Integer> q = new EventQueueMpmc<>(4, s.get());
+            long t0 = System.nanoTime();
+            assertTrue(q.takeBatch(8, 20, TimeUnit.MILLISECONDS).isEmpty());
+            long waited = System.nanoTime() - t0;
+            assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(20), "échéance respectée");
+            assertTrue(waited < TimeUnit.MILLISECONDS.toNanos(500), "pas d'attente au-delà");
+        }
+    }
+
+    @Test
+    void interrupt_stops_waiting_consumer() throws InterruptedException {
+        for (Supplier<WaitStrategy> s : ALL) {
+            EventQueue<Integer> q = new EventQueueSpsc<>(1, s.get());
+            AtomicInteger interrupted = new AtomicInteger(0);
+            Thread consumer = new Thread(() -> {
+                try {
+                    q.take();
+                } catch (InterruptedException e) {
+                    interrupted.set(1);
+                }
+            });
+            consumer.start();
+            Thread.sleep(10);
+            consumer.interrupt();
+            consumer.join(500);
+            assertEquals(1, interrupted.get());
+        }
+    }
+
+    @Test
+    void blocking_consumer_sleeps_untimed_and_is_woken_by_put() throws InterruptedException {
+        EventQueue<Integer> q = new EventQueueSpsc<>(4, WaitStrategies.blocking());
+        AtomicInteger got = new AtomicInteger(-1);
+        Thread consumer = new Thread(() -> {
+            try {
+                got.set(q.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        long t0 = System.nanoTime();
+        while (consumer.getState() != Thread.State.WAITING && System.nanoTime() - t0 < TimeUnit.SECONDS.toNanos(1))
+            Thread.sleep(1);
+        assertEquals(Thread.State.WAITING, consumer.getState(), "pas de réveil périodique");
+        q.put(5);
+        consumer.join(500);
+        assertEquals(5, got.get());
+    }
+
+    @Test
+    void blocking_never_misses_a_signal_in_ping_pong() throws InterruptedException {
+        EventQueue<Integer> ping = new EventQueueMpmc<>(1, WaitStrategies.blocking());
+        EventQueue<Integer> pong = new EventQueueSpsc<>(1, WaitStrategies.blocking());
+        final int rounds = 20_000;
+        Thread echo = new Thread(() -> {
+            try {
+                for (int i = 0; i < rounds; i++)
+                    pong.put(ping.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        echo.setDaemon(true);
+        echo.start();
+        for (int i = 0; i < rounds; i++) {
+            ping.put(i);
+            Integer back = pong.poll(5, TimeUnit.SECONDS);
+            assertEquals(i, back, "réveil perdu au tour " + i);
+        }
+        echo.join(1000);
+    }
+
+    private static void assertWakesUp(EventQueue<Integer> q) throws InterruptedException {
+        AtomicInteger got = new AtomicInteger(-1);
+        Thread consumer = new Thread(() -> {
+            try {
+                got.set(q.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        Thread.sleep(20); // au-delà du spin
+        q.put(5);
+        consumer.join(500);
+        assertEquals(5, got.get(), q.getClass().getSimpleName());
+    }
+}